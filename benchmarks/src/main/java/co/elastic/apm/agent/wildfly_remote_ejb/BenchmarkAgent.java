@@ -0,0 +1,47 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.attach.ElasticApmAttacher;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class BenchmarkAgent {
+
+    private static boolean attached;
+
+    private BenchmarkAgent() {
+    }
+
+    public static synchronized void attach() {
+        if (attached) {
+            return;
+        }
+
+        Map<String, String> configuration = new HashMap<>();
+        configuration.put("service_name", "apm-wildfly-remote-ejb-plugin-benchmarks");
+        configuration.put("disable_send", "true");
+        configuration.put("central_config", "false");
+        configuration.put("cloud_provider", "NONE");
+        configuration.put("metrics_interval", "0ms");
+        configuration.put("log_level", "WARN");
+        configuration.put("transaction_max_spans", String.valueOf(Integer.MAX_VALUE));
+        ElasticApmAttacher.attach(configuration);
+
+        attached = true;
+    }
+}
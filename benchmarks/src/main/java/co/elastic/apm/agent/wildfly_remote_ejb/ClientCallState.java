@@ -0,0 +1,40 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Span;
+import org.openjdk.jmh.annotations.State;
+
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class ClientCallState extends TraceContextState {
+
+    private RemoteEJBCall call;
+
+    @Override
+    protected void activated() {
+        call = (RemoteEJBCall) RemoteEJBClientAdvice.onEnterInvoke(GreeterView.LOCATOR_REF, GreeterView.GREET);
+    }
+
+    public Span getSpan() {
+        return call.getSpan();
+    }
+
+    @Override
+    protected void deactivating() {
+        RemoteEJBClientAdvice.onExitInvoke(call, null);
+        call = null;
+    }
+}
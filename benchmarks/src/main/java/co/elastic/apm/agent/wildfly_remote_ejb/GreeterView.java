@@ -0,0 +1,45 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.jboss.ejb.client.EJBLocator;
+import org.jboss.ejb.client.StatelessEJBLocator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class GreeterView {
+
+    public static final AtomicReference<EJBLocator<?>> LOCATOR_REF = new AtomicReference<>(new StatelessEJBLocator<>(Greeter.class, "app", "module", "GreeterBean", ""));
+
+    public static final Method GREET;
+
+    static {
+        try {
+            GREET = Greeter.class.getMethod("greet", String.class);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private GreeterView() {
+    }
+
+    public interface Greeter {
+
+        String greet(String name);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapTextHeaderAccessorBenchmark {
+
+    private final Map<String, Object> injectCarrier = new HashMap<>();
+    private final Map<String, Object> extractCarrier = new HashMap<>();
+
+    @Setup
+    public void setUp(TraceContextState traceContextState) {
+        if (traceContextState.traceContext.getTraceParent() != null) {
+            extractCarrier.put("traceparent", traceContextState.traceContext.getTraceParent());
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> inject(TraceContextState traceContextState) {
+        ElasticApm.currentSpan().injectTraceHeaders(new MapTextHeaderAccessor(injectCarrier));
+        return injectCarrier;
+    }
+
+    @Benchmark
+    public void extract(TraceContextState traceContextState) {
+        ElasticApm.startTransactionWithRemoteParent(new MapTextHeaderAccessor(extractCarrier)).end();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.ejb.server.InvocationRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RemoteEJBServerAdviceBenchmark {
+
+    @Param({"SAMPLED", "UNSAMPLED", "NONE"})
+    public TraceContext traceContext;
+
+    private ComponentView componentView;
+    private InvocationRequest incomingInvocation;
+    private InvocationRequest.Resolved invocationRequest;
+
+    @Setup
+    public void setUp() {
+        BenchmarkAgent.attach();
+
+        Map<String, Object> attachments = new HashMap<>();
+        if (traceContext.getTraceParent() != null) {
+            attachments.put("traceparent", traceContext.getTraceParent());
+        }
+
+        Map<String, Object> component = new HashMap<>();
+        component.put("getComponentName", "GreeterBean");
+        component.put("getComponentClass", GreeterView.Greeter.class);
+
+        Map<String, Object> view = new HashMap<>();
+        view.put("getViewClass", GreeterView.Greeter.class);
+        view.put("getComponent", proxy(Component.class, component));
+
+        Map<String, Object> incoming = new HashMap<>();
+        incoming.put("getProtocol", "remote");
+        incoming.put("getPeerAddress", new InetSocketAddress(InetAddress.getLoopbackAddress(), 8080));
+        incoming.put("getAttachments", attachments);
+
+        Map<String, Object> resolved = new HashMap<>();
+        resolved.put("getAttachments", attachments);
+
+        componentView = proxy(ComponentView.class, view);
+        incomingInvocation = proxy(InvocationRequest.class, incoming);
+        invocationRequest = proxy(InvocationRequest.Resolved.class, resolved);
+    }
+
+    @Benchmark
+    public void invokeMethod() {
+        RemoteEJBServerAdvice.onExitInvokeMethod(componentView, GreeterView.GREET, incomingInvocation, invocationRequest, RemoteEJBServerAdvice.onEnterInvokeMethod(componentView, GreeterView.GREET, incomingInvocation, invocationRequest), null);
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Object> returnValues) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, invokedMethod, args) -> {
+            switch (invokedMethod.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    return returnValues.containsKey(invokedMethod.getName()) ? returnValues.get(invokedMethod.getName()) : defaultValue(invokedMethod.getReturnType());
+            }
+        }));
+    }
+
+    private static Object defaultValue(Class<?> returnType) {
+        return returnType.isPrimitive() && returnType != void.class ? Array.get(Array.newInstance(returnType, 1), 0) : null;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.HeaderExtractor;
+
+public enum TraceContext implements HeaderExtractor {
+
+    SAMPLED("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01"),
+    UNSAMPLED("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00"),
+    NONE(null);
+
+    private final String traceParent;
+
+    TraceContext(String traceParent) {
+        this.traceParent = traceParent;
+    }
+
+    public String getTraceParent() {
+        return traceParent;
+    }
+
+    @Override
+    public String getFirstHeader(String headerName) {
+        return "traceparent".equals(headerName) ? traceParent : null;
+    }
+}
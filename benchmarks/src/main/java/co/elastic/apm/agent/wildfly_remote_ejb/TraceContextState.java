@@ -0,0 +1,70 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Scope;
+import co.elastic.apm.api.Transaction;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class TraceContextState {
+
+    @Param({"SAMPLED", "UNSAMPLED", "NONE"})
+    public TraceContext traceContext;
+
+    private Transaction transaction;
+    private Scope scope;
+
+    @Setup(Level.Iteration)
+    public void startTransaction() {
+        BenchmarkAgent.attach();
+
+        if (traceContext != TraceContext.NONE) {
+            transaction = ElasticApm.startTransactionWithRemoteParent(traceContext)
+                    .setName("Benchmark")
+                    .setType(Transaction.TYPE_REQUEST);
+            scope = transaction.activate();
+        }
+
+        activated();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endTransaction() {
+        deactivating();
+
+        if (transaction == null) {
+            return;
+        }
+
+        scope.close();
+        transaction.end();
+
+        scope = null;
+        transaction = null;
+    }
+
+    protected void activated() {
+    }
+
+    protected void deactivating() {
+    }
+}
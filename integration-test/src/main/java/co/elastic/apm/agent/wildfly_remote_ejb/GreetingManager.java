@@ -17,8 +17,12 @@ package co.elastic.apm.agent.wildfly_remote_ejb;
 
 import jakarta.ejb.Remote;
 
+import java.util.concurrent.Future;
+
 @Remote
 public interface GreetingManager {
 
     String greet(boolean throwException);
+
+    Future<String> greetAsync(boolean throwException);
 }
@@ -15,8 +15,12 @@
  */
 package co.elastic.apm.agent.wildfly_remote_ejb;
 
+import jakarta.ejb.AsyncResult;
+import jakarta.ejb.Asynchronous;
 import jakarta.ejb.Stateless;
 
+import java.util.concurrent.Future;
+
 @Stateless
 public class GreetingManagerImpl implements GreetingManager {
 
@@ -28,4 +32,14 @@ public class GreetingManagerImpl implements GreetingManager {
 
         return "Hello World!";
     }
+
+    @Override
+    @Asynchronous
+    public Future<String> greetAsync(boolean throwException) {
+        if (throwException) {
+            throw new RuntimeException();
+        }
+
+        return new AsyncResult<>("Hello World!");
+    }
 }
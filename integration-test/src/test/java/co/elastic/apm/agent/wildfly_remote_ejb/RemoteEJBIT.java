@@ -23,7 +23,10 @@ import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.mockserver.client.MockServerClient;
 import org.mockserver.model.ClearType;
 import org.mockserver.model.Format;
@@ -43,18 +46,23 @@ import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
 import static org.mockserver.model.JsonBody.json;
 
 @Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class RemoteEJBIT {
 
     private static final Network NETWORK = Network.newNetwork();
@@ -112,6 +120,28 @@ class RemoteEJBIT {
         MOCK_SERVER_CLIENT.clear(request("/intake/v2/events"), ClearType.LOG);
     }
 
+    @Test
+    @Order(1)
+    void testConnect() throws NamingException, InterruptedException {
+        Transaction transaction = ElasticApm.startTransaction();
+        try (Scope scope = transaction.activate()) {
+            GreetingManager greeterManager = (GreetingManager) new InitialContext(getContextProperties()).lookup("ejb:/apm-wildfly-remote-ejb-plugin-it/GreetingManagerImpl!co.elastic.apm.agent.wildfly_remote_ejb.GreetingManager");
+            assertEquals("Hello World!", greeterManager.greet(false));
+        } finally {
+            transaction.end();
+        }
+
+        Map<String, Object> clientSpan = getClientSpan();
+        Map<String, Object> connectSpan = await(() -> findSpan("Connect " + WILDFLY.getContainerIpAddress() + ":" + WILDFLY.getMappedPort(8080)));
+
+        assertAll(
+                () -> assertEquals("external.remoting.connect", JsonPath.read(connectSpan, "$.type"), "type"),
+                () -> assertEquals(clientSpan.get("trace_id"), connectSpan.get("trace_id"), "trace_id"),
+                () -> assertEquals(clientSpan.get("parent_id"), connectSpan.get("parent_id"), "parent_id"),
+                () -> assertEquals("success", connectSpan.get("outcome"), "outcome")
+        );
+    }
+
     @Test
     void testSuccess() throws NamingException {
         Transaction transaction = ElasticApm.startTransaction();
@@ -152,10 +182,113 @@ class RemoteEJBIT {
         );
     }
 
+    @Test
+    void testHttp() throws NamingException {
+        Transaction transaction = ElasticApm.startTransaction();
+        try (Scope scope = transaction.activate()) {
+            GreetingManager greeterManager = (GreetingManager) new InitialContext(getContextProperties("http://" + WILDFLY.getContainerIpAddress() + ":" + WILDFLY.getMappedPort(8080) + "/wildfly-services")).lookup("ejb:/apm-wildfly-remote-ejb-plugin-it/GreetingManagerImpl!co.elastic.apm.agent.wildfly_remote_ejb.GreetingManager");
+            assertEquals("Hello World!", greeterManager.greet(false));
+        } finally {
+            transaction.end();
+        }
+
+        Map<String, Object> span = getClientSpan();
+        Map<String, Object> serverTransaction = getServerTransaction();
+
+        assertAll(
+                () -> assertClientSpan(span, "success"),
+                () -> assertServerTransaction(serverTransaction, (String) span.get("trace_id"), (String) span.get("id"), "success"),
+                () -> assertEquals("http", JsonPath.read(span, "$.context.tags.ejb_transport"), "context.tags.ejb_transport"),
+                () -> assertNotNull(JsonPath.read(serverTransaction, "$.context.tags.ejb_transport"), "server context.tags.ejb_transport")
+        );
+    }
+
+    @Test
+    void testAsync() throws NamingException, ExecutionException, InterruptedException {
+        Transaction transaction = ElasticApm.startTransaction();
+        try (Scope scope = transaction.activate()) {
+            GreetingManager greeterManager = (GreetingManager) new InitialContext(getContextProperties()).lookup("ejb:/apm-wildfly-remote-ejb-plugin-it/GreetingManagerImpl!co.elastic.apm.agent.wildfly_remote_ejb.GreetingManager");
+            assertEquals("Hello World!", greeterManager.greetAsync(false).get());
+        } finally {
+            transaction.end();
+        }
+
+        Map<String, Object> serverTransaction = await(() -> findTransaction("GreetingManager#greetAsync"));
+        Map<String, Object> asyncTransaction = await(() -> findTransaction("Async GreetingManager#greetAsync"));
+        Map<String, Object> queueWaitSpan = await(() -> findSpan("Async queue wait"));
+        Map<String, Object> executionSpan = await(() -> findSpan("Async execution"));
+        Map<String, Object> clientSpan = await(() -> findSpan("Call GreetingManager#greetAsync"));
+
+        assertAll(
+                () -> assertEquals(serverTransaction.get("trace_id"), asyncTransaction.get("trace_id"), "trace_id"),
+                () -> assertEquals(serverTransaction.get("id"), asyncTransaction.get("parent_id"), "parent_id"),
+                () -> assertEquals("success", asyncTransaction.get("outcome"), "outcome"),
+                () -> assertEquals(asyncTransaction.get("id"), queueWaitSpan.get("transaction_id"), "queue wait transaction_id"),
+                () -> assertEquals(asyncTransaction.get("id"), executionSpan.get("transaction_id"), "execution transaction_id"),
+                () -> assertEquals(asyncTransaction.get("id"), executionSpan.get("parent_id"), "execution parent_id"),
+                () -> assertEquals("success", clientSpan.get("outcome"), "client outcome")
+        );
+    }
+
+    @Test
+    void testAsyncError() throws NamingException, InterruptedException {
+        Transaction transaction = ElasticApm.startTransaction();
+        try (Scope scope = transaction.activate()) {
+            GreetingManager greeterManager = (GreetingManager) new InitialContext(getContextProperties()).lookup("ejb:/apm-wildfly-remote-ejb-plugin-it/GreetingManagerImpl!co.elastic.apm.agent.wildfly_remote_ejb.GreetingManager");
+            greeterManager.greetAsync(true).get();
+        } catch (ExecutionException ignored) {
+        } finally {
+            transaction.end();
+        }
+
+        Map<String, Object> serverTransaction = await(() -> findTransaction("GreetingManager#greetAsync"));
+        Map<String, Object> asyncTransaction = await(() -> findTransaction("Async GreetingManager#greetAsync"));
+        Map<String, Object> executionSpan = await(() -> findSpan("Async execution"));
+        Map<String, Object> clientSpan = await(() -> findSpan("Call GreetingManager#greetAsync"));
+
+        assertAll(
+                () -> assertEquals(serverTransaction.get("id"), asyncTransaction.get("parent_id"), "parent_id"),
+                () -> assertEquals("failure", asyncTransaction.get("outcome"), "outcome"),
+                () -> assertEquals("failure", executionSpan.get("outcome"), "execution outcome"),
+                () -> assertEquals("failure", clientSpan.get("outcome"), "client outcome"),
+                () -> assertTrue(getErrors().stream().anyMatch(e -> executionSpan.get("id").equals(e.get("parent_id"))), "execution error not found")
+        );
+    }
+
+    private static Map<String, Object> await(Supplier<Optional<Map<String, Object>>> event) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Optional<Map<String, Object>> result = event.get();
+            if (result.isPresent()) {
+                return result.get();
+            }
+            Thread.sleep(100);
+        }
+
+        return event.get().get();
+    }
+
+    private static Optional<Map<String, Object>> findTransaction(String name) {
+        return getEvents()
+                .flatMap(dc -> ((List<Map<String, Object>>) dc.read("$[?(@.transaction)].transaction")).stream())
+                .filter(t -> name.equals(t.get("name")))
+                .findAny();
+    }
+
+    private static Optional<Map<String, Object>> findSpan(String name) {
+        return getEvents()
+                .flatMap(dc -> ((List<Map<String, Object>>) dc.read("$[?(@.span)].span")).stream())
+                .filter(s -> name.equals(s.get("name")))
+                .findAny();
+    }
+
     private static Properties getContextProperties() {
+        return getContextProperties("remote+http://" + WILDFLY.getContainerIpAddress() + ":" + WILDFLY.getMappedPort(8080));
+    }
+
+    private static Properties getContextProperties(String providerUrl) {
         Properties contextProperties = new Properties();
         contextProperties.put(Context.INITIAL_CONTEXT_FACTORY, "org.wildfly.naming.client.WildFlyInitialContextFactory");
-        contextProperties.put(Context.PROVIDER_URL, "remote+http://" + WILDFLY.getContainerIpAddress() + ":" + WILDFLY.getMappedPort(8080));
+        contextProperties.put(Context.PROVIDER_URL, providerUrl);
         contextProperties.put(Context.SECURITY_PRINCIPAL, "ejb-user");
         contextProperties.put(Context.SECURITY_CREDENTIALS, "passw0rd");
         return contextProperties;
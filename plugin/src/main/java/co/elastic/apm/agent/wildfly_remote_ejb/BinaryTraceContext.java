@@ -0,0 +1,88 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+public final class BinaryTraceContext {
+
+    public static final String ATTACHMENT_NAME = "elastic-apm-traceparent-bin";
+    public static final String TRACE_PARENT_HEADER_NAME = "traceparent";
+
+    private static final int TRACE_ID_LENGTH = 16;
+    private static final int PARENT_ID_LENGTH = 8;
+    private static final int LENGTH = TRACE_ID_LENGTH + PARENT_ID_LENGTH + 1;
+    private static final int TRACE_PARENT_LENGTH = 55;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private BinaryTraceContext() {
+    }
+
+    public static byte[] fromTraceParent(String traceParent) {
+        if (traceParent == null || traceParent.length() != TRACE_PARENT_LENGTH || traceParent.charAt(2) != '-' || traceParent.charAt(35) != '-' || traceParent.charAt(52) != '-') {
+            return null;
+        }
+
+        byte[] binaryTraceContext = new byte[LENGTH];
+        if (!decodeHex(traceParent, 3, binaryTraceContext, 0, TRACE_ID_LENGTH)
+                || !decodeHex(traceParent, 36, binaryTraceContext, TRACE_ID_LENGTH, PARENT_ID_LENGTH)
+                || !decodeHex(traceParent, 53, binaryTraceContext, TRACE_ID_LENGTH + PARENT_ID_LENGTH, 1)) {
+            return null;
+        }
+
+        return binaryTraceContext;
+    }
+
+    public static String toTraceParent(Object binaryTraceContext) {
+        if (!(binaryTraceContext instanceof byte[]) || ((byte[]) binaryTraceContext).length != LENGTH) {
+            return null;
+        }
+
+        byte[] bytes = (byte[]) binaryTraceContext;
+
+        char[] traceParent = new char[TRACE_PARENT_LENGTH];
+        traceParent[0] = '0';
+        traceParent[1] = '0';
+        traceParent[2] = '-';
+        encodeHex(bytes, 0, TRACE_ID_LENGTH, traceParent, 3);
+        traceParent[35] = '-';
+        encodeHex(bytes, TRACE_ID_LENGTH, PARENT_ID_LENGTH, traceParent, 36);
+        traceParent[52] = '-';
+        encodeHex(bytes, TRACE_ID_LENGTH + PARENT_ID_LENGTH, 1, traceParent, 53);
+
+        return new String(traceParent);
+    }
+
+    private static boolean decodeHex(String hex, int hexOffset, byte[] bytes, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            int high = Character.digit(hex.charAt(hexOffset + 2 * i), 16);
+            int low = Character.digit(hex.charAt(hexOffset + 2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+
+            bytes[offset + i] = (byte) ((high << 4) | low);
+        }
+
+        return true;
+    }
+
+    private static void encodeHex(byte[] bytes, int offset, int length, char[] hex, int hexOffset) {
+        for (int i = 0; i < length; i++) {
+            hex[hexOffset + 2 * i] = HEX_DIGITS[(bytes[offset + i] >> 4) & 0xF];
+            hex[hexOffset + 2 * i + 1] = HEX_DIGITS[bytes[offset + i] & 0xF];
+        }
+    }
+}
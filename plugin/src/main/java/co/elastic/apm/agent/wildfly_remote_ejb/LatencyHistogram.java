@@ -0,0 +1,176 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@GlobalState
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private static final int COUNT_INDEX = BUCKET_COUNT;
+    private static final int SUM_INDEX = BUCKET_COUNT + 1;
+    private static final int MAX_INDEX = BUCKET_COUNT + 2;
+    private static final int STRIPE_LENGTH = BUCKET_COUNT + 3;
+
+    private static final int STRIPE_COUNT = Math.min(16, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(0, value);
+        }
+
+        long clampedValue = Math.min(value, MAX_VALUE);
+        int exponent = 63 - Long.numberOfLeadingZeros(clampedValue);
+        int subBucket = (int) (clampedValue >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKET_COUNT;
+
+        return (long) (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long bucketUpperBound(int index) {
+        return index + 1 < BUCKET_COUNT ? bucketLowerBound(index + 1) - 1 : MAX_VALUE;
+    }
+
+    public void record(long micros) {
+        AtomicLongArray stripe = stripe();
+
+        stripe.incrementAndGet(bucketIndex(micros));
+        stripe.incrementAndGet(COUNT_INDEX);
+        stripe.addAndGet(SUM_INDEX, micros);
+
+        long max = stripe.get(MAX_INDEX);
+        while (micros > max && !stripe.compareAndSet(MAX_INDEX, max, micros)) {
+            max = stripe.get(MAX_INDEX);
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe != null) {
+                count += stripe.get(COUNT_INDEX);
+            }
+        }
+
+        return count;
+    }
+
+    public double getMeanMicros() {
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe != null) {
+                count += stripe.get(COUNT_INDEX);
+                sum += stripe.get(SUM_INDEX);
+            }
+        }
+
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    public long getMaxMicros() {
+        long max = 0;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe != null) {
+                max = Math.max(max, stripe.get(MAX_INDEX));
+            }
+        }
+
+        return max;
+    }
+
+    public long getPercentileMicros(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe == null) {
+                continue;
+            }
+
+            for (int j = 0; j < BUCKET_COUNT; j++) {
+                long count = stripe.get(j);
+                counts[j] += count;
+                total += count;
+            }
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxMicros());
+            }
+        }
+
+        return getMaxMicros();
+    }
+
+    public void reset() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe == null) {
+                continue;
+            }
+
+            for (int j = 0; j < STRIPE_LENGTH; j++) {
+                stripe.set(j, 0);
+            }
+        }
+    }
+
+    private AtomicLongArray stripe() {
+        int index = (int) Thread.currentThread().getId() & (STRIPE_COUNT - 1);
+
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(STRIPE_LENGTH));
+            stripe = stripes.get(index);
+        }
+
+        return stripe;
+    }
+}
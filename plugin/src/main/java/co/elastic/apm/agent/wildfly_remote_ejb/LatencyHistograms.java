@@ -0,0 +1,117 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@GlobalState
+public final class LatencyHistograms implements LatencyHistogramsMBean {
+
+    private static final LatencyHistograms CLIENT = new LatencyHistograms("LatencyHistograms", "client");
+    private static final LatencyHistograms SERVER = new LatencyHistograms("LatencyHistograms", "server");
+    private static final LatencyHistograms CLIENT_SESSIONS = new LatencyHistograms("SessionLatencyHistograms", "client");
+    private static final LatencyHistograms SERVER_SESSIONS = new LatencyHistograms("SessionLatencyHistograms", "server");
+
+    private final String type;
+    private final String side;
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    private LatencyHistograms(String type, String side) {
+        this.type = type;
+        this.side = side;
+    }
+
+    public static LatencyHistograms client() {
+        return CLIENT;
+    }
+
+    public static LatencyHistograms server() {
+        return SERVER;
+    }
+
+    public static LatencyHistograms clientSessions() {
+        return CLIENT_SESSIONS;
+    }
+
+    public static LatencyHistograms serverSessions() {
+        return SERVER_SESSIONS;
+    }
+
+    public LatencyHistogram get(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+
+            LatencyHistogram existingHistogram = histograms.putIfAbsent(name, histogram);
+            if (existingHistogram != null) {
+                histogram = existingHistogram;
+            }
+
+            register();
+        }
+
+        return histogram;
+    }
+
+    @Override
+    public String[] getNames() {
+        return histograms.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public long getCount(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram.getCount() : 0;
+    }
+
+    @Override
+    public double getMeanMillis(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram.getMeanMicros() / 1000 : 0;
+    }
+
+    @Override
+    public double getMaxMillis(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram.getMaxMicros() / 1000d : 0;
+    }
+
+    @Override
+    public double getPercentileMillis(String name, double percentile) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram.getPercentileMicros(percentile) / 1000d : 0;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    private void register() {
+        if (registered.get() || !registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        RemoteEJBMBeans.register(this, type, side);
+    }
+}
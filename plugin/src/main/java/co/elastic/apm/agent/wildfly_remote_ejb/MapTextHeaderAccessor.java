@@ -30,7 +30,8 @@ public final class MapTextHeaderAccessor implements HeaderInjector, HeaderExtrac
 
     @Override
     public String getFirstHeader(String headerName) {
-        return (String) carrier.get(headerName);
+        Object headerValue = carrier.get(headerName);
+        return headerValue instanceof String ? (String) headerValue : null;
     }
 
     @Override
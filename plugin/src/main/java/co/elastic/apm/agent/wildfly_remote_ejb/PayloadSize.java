@@ -0,0 +1,91 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@GlobalState
+public final class PayloadSize {
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAccumulator requestMaxBytes = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder responseCount = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAccumulator responseMaxBytes = new LongAccumulator(Math::max, 0);
+
+    public void recordRequest(long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+
+        requestCount.increment();
+        requestBytes.add(bytes);
+        requestMaxBytes.accumulate(bytes);
+    }
+
+    public void recordResponse(long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+
+        responseCount.increment();
+        responseBytes.add(bytes);
+        responseMaxBytes.accumulate(bytes);
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public double getMeanRequestBytes() {
+        return mean(requestBytes, requestCount);
+    }
+
+    public long getMaxRequestBytes() {
+        return requestMaxBytes.get();
+    }
+
+    public long getResponseCount() {
+        return responseCount.sum();
+    }
+
+    public double getMeanResponseBytes() {
+        return mean(responseBytes, responseCount);
+    }
+
+    public long getMaxResponseBytes() {
+        return responseMaxBytes.get();
+    }
+
+    public void reset() {
+        requestCount.reset();
+        requestBytes.reset();
+        requestMaxBytes.reset();
+        responseCount.reset();
+        responseBytes.reset();
+        responseMaxBytes.reset();
+    }
+
+    private static double mean(LongAdder bytes, LongAdder count) {
+        long n = count.sum();
+        return n > 0 ? (double) bytes.sum() / n : 0;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@GlobalState
+public final class PayloadSizes implements PayloadSizesMBean {
+
+    private static final PayloadSizes CLIENT = new PayloadSizes("client");
+    private static final PayloadSizes SERVER = new PayloadSizes("server");
+
+    private final String side;
+    private final ConcurrentMap<String, PayloadSize> payloadSizes = new ConcurrentHashMap<>();
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    private PayloadSizes(String side) {
+        this.side = side;
+    }
+
+    public static PayloadSizes client() {
+        return CLIENT;
+    }
+
+    public static PayloadSizes server() {
+        return SERVER;
+    }
+
+    public PayloadSize get(String name) {
+        PayloadSize payloadSize = payloadSizes.get(name);
+        if (payloadSize == null) {
+            payloadSize = new PayloadSize();
+
+            PayloadSize existingPayloadSize = payloadSizes.putIfAbsent(name, payloadSize);
+            if (existingPayloadSize != null) {
+                payloadSize = existingPayloadSize;
+            }
+
+            register();
+        }
+
+        return payloadSize;
+    }
+
+    @Override
+    public String[] getNames() {
+        return payloadSizes.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public long getRequestCount(String name) {
+        PayloadSize payloadSize = payloadSizes.get(name);
+        return payloadSize != null ? payloadSize.getRequestCount() : 0;
+    }
+
+    @Override
+    public double getMeanRequestBytes(String name) {
+        PayloadSize payloadSize = payloadSizes.get(name);
+        return payloadSize != null ? payloadSize.getMeanRequestBytes() : 0;
+    }
+
+    @Override
+    public long getMaxRequestBytes(String name) {
+        PayloadSize payloadSize = payloadSizes.get(name);
+        return payloadSize != null ? payloadSize.getMaxRequestBytes() : 0;
+    }
+
+    @Override
+    public long getResponseCount(String name) {
+        PayloadSize payloadSize = payloadSizes.get(name);
+        return payloadSize != null ? payloadSize.getResponseCount() : 0;
+    }
+
+    @Override
+    public double getMeanResponseBytes(String name) {
+        PayloadSize payloadSize = payloadSizes.get(name);
+        return payloadSize != null ? payloadSize.getMeanResponseBytes() : 0;
+    }
+
+    @Override
+    public long getMaxResponseBytes(String name) {
+        PayloadSize payloadSize = payloadSizes.get(name);
+        return payloadSize != null ? payloadSize.getMaxResponseBytes() : 0;
+    }
+
+    @Override
+    public void reset() {
+        for (PayloadSize payloadSize : payloadSizes.values()) {
+            payloadSize.reset();
+        }
+    }
+
+    private void register() {
+        if (registered.get() || !registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        RemoteEJBMBeans.register(this, "PayloadSizes", side);
+    }
+}
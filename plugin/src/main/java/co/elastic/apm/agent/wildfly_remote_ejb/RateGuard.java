@@ -0,0 +1,81 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@GlobalState
+public final class RateGuard {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongAdder windowCalls = new LongAdder();
+    private final AtomicLong windowStartNanoTime;
+    private final AtomicInteger windowSpans = new AtomicInteger();
+    private final LongAdder suppressedSpans = new LongAdder();
+
+    private volatile long rate;
+    private volatile boolean throttled;
+
+    public RateGuard(long nanoTime) {
+        this.windowStartNanoTime = new AtomicLong(nanoTime);
+    }
+
+    public boolean tryAcquire(int rateLimit, int spanBudget, long nanoTime) {
+        long windowStart = windowStartNanoTime.get();
+        long elapsedNanos = nanoTime - windowStart;
+        if (elapsedNanos >= WINDOW_NANOS && windowStartNanoTime.compareAndSet(windowStart, nanoTime)) {
+            long calls = windowCalls.sumThenReset();
+            rate = elapsedNanos < 2 * WINDOW_NANOS ? calls : calls * WINDOW_NANOS / elapsedNanos;
+            throttled = rate > rateLimit;
+            windowSpans.set(0);
+        }
+
+        windowCalls.increment();
+
+        if (!throttled) {
+            if (windowCalls.sum() <= rateLimit) {
+                return true;
+            }
+
+            throttled = true;
+        }
+
+        if (windowSpans.incrementAndGet() <= spanBudget) {
+            return true;
+        }
+
+        suppressedSpans.increment();
+        return false;
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    public long getRate() {
+        return rate;
+    }
+
+    public long getSuppressedSpans() {
+        return suppressedSpans.sum();
+    }
+}
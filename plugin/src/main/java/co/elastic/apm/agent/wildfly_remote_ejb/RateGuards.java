@@ -0,0 +1,107 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@GlobalState
+public final class RateGuards implements RateGuardsMBean {
+
+    private static final RateGuards CLIENT = new RateGuards("client");
+    private static final RateGuards SERVER = new RateGuards("server");
+
+    private final String side;
+    private final ConcurrentMap<String, RateGuard> rateGuards = new ConcurrentHashMap<>();
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    private RateGuards(String side) {
+        this.side = side;
+    }
+
+    public static RateGuards client() {
+        return CLIENT;
+    }
+
+    public static RateGuards server() {
+        return SERVER;
+    }
+
+    public RateGuard get(String name) {
+        RateGuard rateGuard = rateGuards.get(name);
+        if (rateGuard == null) {
+            rateGuard = new RateGuard(System.nanoTime());
+
+            RateGuard existingRateGuard = rateGuards.putIfAbsent(name, rateGuard);
+            if (existingRateGuard != null) {
+                rateGuard = existingRateGuard;
+            }
+
+            register();
+        }
+
+        return rateGuard;
+    }
+
+    @Override
+    public String[] getNames() {
+        return rateGuards.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getThrottledNames() {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, RateGuard> entry : rateGuards.entrySet()) {
+            if (entry.getValue().isThrottled()) {
+                names.add(entry.getKey());
+            }
+        }
+
+        return names.toArray(new String[0]);
+    }
+
+    @Override
+    public String getMode(String name) {
+        RateGuard rateGuard = rateGuards.get(name);
+        return rateGuard != null && rateGuard.isThrottled() ? "THROTTLED" : "FULL";
+    }
+
+    @Override
+    public long getRate(String name) {
+        RateGuard rateGuard = rateGuards.get(name);
+        return rateGuard != null ? rateGuard.getRate() : 0;
+    }
+
+    @Override
+    public long getSuppressedSpans(String name) {
+        RateGuard rateGuard = rateGuards.get(name);
+        return rateGuard != null ? rateGuard.getSuppressedSpans() : 0;
+    }
+
+    private void register() {
+        if (registered.get() || !registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        RemoteEJBMBeans.register(this, "RateGuards", side);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.weakconcurrent.DetachedThreadLocal;
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakConcurrent;
+import co.elastic.apm.api.Scope;
+import co.elastic.apm.api.Span;
+
+public final class RemoteEJBCall {
+
+    private static final DetachedThreadLocal<RemoteEJBCall> CLIENT_CALLS = WeakConcurrent.buildThreadLocal();
+    private static final DetachedThreadLocal<RemoteEJBCall> SERVER_CALLS = WeakConcurrent.buildThreadLocal();
+
+    private final RemoteEJBCall parent;
+    private RemoteEJBCall child;
+
+    private boolean active;
+    private RemoteEJBMethod method;
+    private long startNanoTime;
+    private Span parentSpan;
+    private Span span;
+    private Scope scope;
+    private RemoteEJBClientInvocation invocation;
+    private RemoteEJBClientFrame frame;
+
+    private RemoteEJBCall(RemoteEJBCall parent) {
+        this.parent = parent;
+    }
+
+    public static RemoteEJBCall enterClient(RemoteEJBMethod method) {
+        RemoteEJBCall call = enter(CLIENT_CALLS, method);
+        call.frame = RemoteEJBClientFrame.enter();
+        return call;
+    }
+
+    public static RemoteEJBCall enterServer(RemoteEJBMethod method) {
+        return enter(SERVER_CALLS, method);
+    }
+
+    public static RemoteEJBCall currentClient() {
+        return current(CLIENT_CALLS);
+    }
+
+    public static RemoteEJBCall currentServer() {
+        return current(SERVER_CALLS);
+    }
+
+    private static RemoteEJBCall enter(DetachedThreadLocal<RemoteEJBCall> calls, RemoteEJBMethod method) {
+        RemoteEJBCall call = calls.get();
+        if (call == null) {
+            call = new RemoteEJBCall(null);
+            calls.set(call);
+        }
+
+        while (call.active) {
+            if (call.child == null) {
+                call.child = new RemoteEJBCall(call);
+            }
+            call = call.child;
+        }
+
+        call.active = true;
+        call.method = method;
+        call.startNanoTime = System.nanoTime();
+
+        return call;
+    }
+
+    private static RemoteEJBCall current(DetachedThreadLocal<RemoteEJBCall> calls) {
+        RemoteEJBCall call = calls.get();
+        if (call == null || !call.active) {
+            return null;
+        }
+
+        while (call.child != null && call.child.active) {
+            call = call.child;
+        }
+
+        return call;
+    }
+
+    public RemoteEJBMethod getMethod() {
+        return method;
+    }
+
+    public long getStartNanoTime() {
+        return startNanoTime;
+    }
+
+    public Span getParentSpan() {
+        return parentSpan;
+    }
+
+    public Span getSpan() {
+        return span;
+    }
+
+    public RemoteEJBClientInvocation getInvocation() {
+        return invocation;
+    }
+
+    public void setInvocation(RemoteEJBClientInvocation invocation) {
+        this.invocation = invocation;
+    }
+
+    public void activate(Span span) {
+        activate(null, span);
+    }
+
+    public void activate(Span parentSpan, Span span) {
+        this.parentSpan = parentSpan;
+        this.span = span;
+        this.scope = span.activate();
+        if (frame != null && parentSpan != null) {
+            frame.setInternalSpanParent(parentSpan);
+        }
+    }
+
+    public void exit() {
+        try {
+            if (frame != null) {
+                frame.exit();
+            }
+
+            if (scope != null) {
+                scope.close();
+            }
+        } finally {
+            active = false;
+            method = null;
+            parentSpan = null;
+            span = null;
+            scope = null;
+            invocation = null;
+            frame = null;
+        }
+    }
+}
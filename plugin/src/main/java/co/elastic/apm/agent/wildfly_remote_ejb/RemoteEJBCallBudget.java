@@ -0,0 +1,122 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+import co.elastic.apm.api.Span;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@GlobalState
+public final class RemoteEJBCallBudget {
+
+    static final int MAX_VIEWS = 64;
+    static final int MAX_TRANSACTIONS = 1024;
+
+    private static final Map<String, RemoteEJBCallBudget> BUDGETS = new LinkedHashMap<String, RemoteEJBCallBudget>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RemoteEJBCallBudget> eldest) {
+            return size() > MAX_TRANSACTIONS;
+        }
+    };
+    private static final ThreadLocal<ArrayDeque<Span>> PLUGIN_TRANSACTIONS = new ThreadLocal<>();
+
+    private final int[] viewHashes = new int[MAX_VIEWS];
+    private final boolean endedByPlugin;
+
+    private int callCount;
+    private long callNanos;
+    private int viewCount;
+
+    RemoteEJBCallBudget(boolean endedByPlugin) {
+        this.endedByPlugin = endedByPlugin;
+    }
+
+    public static RemoteEJBCallBudget of(String transactionId) {
+        synchronized (BUDGETS) {
+            RemoteEJBCallBudget budget = BUDGETS.get(transactionId);
+            if (budget == null) {
+                budget = new RemoteEJBCallBudget(isPluginTransaction(transactionId));
+                BUDGETS.put(transactionId, budget);
+            }
+            return budget;
+        }
+    }
+
+    public static RemoteEJBCallBudget remove(String transactionId) {
+        synchronized (BUDGETS) {
+            return BUDGETS.remove(transactionId);
+        }
+    }
+
+    public static void enterPluginTransaction(Span transaction) {
+        ArrayDeque<Span> transactions = PLUGIN_TRANSACTIONS.get();
+        if (transactions == null) {
+            transactions = new ArrayDeque<>();
+            PLUGIN_TRANSACTIONS.set(transactions);
+        }
+        transactions.push(transaction);
+    }
+
+    public static void exitPluginTransaction() {
+        ArrayDeque<Span> transactions = PLUGIN_TRANSACTIONS.get();
+        if (transactions != null) {
+            transactions.poll();
+        }
+    }
+
+    private static boolean isPluginTransaction(String transactionId) {
+        ArrayDeque<Span> transactions = PLUGIN_TRANSACTIONS.get();
+        Span transaction = transactions != null ? transactions.peek() : null;
+        return transaction != null && transactionId.equals(transaction.getId());
+    }
+
+    public synchronized int record(Class<?> viewClass, long nanos) {
+        callCount++;
+        callNanos += nanos;
+
+        int viewHash = System.identityHashCode(viewClass);
+        for (int i = 0; i < viewCount; i++) {
+            if (viewHashes[i] == viewHash) {
+                return callCount;
+            }
+        }
+
+        if (viewCount < MAX_VIEWS) {
+            viewHashes[viewCount++] = viewHash;
+        }
+
+        return callCount;
+    }
+
+    public boolean isEndedByPlugin() {
+        return endedByPlugin;
+    }
+
+    public synchronized int getCallCount() {
+        return callCount;
+    }
+
+    public synchronized long getCallNanos() {
+        return callNanos;
+    }
+
+    public synchronized int getViewCount() {
+        return viewCount;
+    }
+}
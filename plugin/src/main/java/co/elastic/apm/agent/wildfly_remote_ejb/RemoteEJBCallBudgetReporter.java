@@ -0,0 +1,79 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.logging.Logger;
+import co.elastic.apm.agent.sdk.logging.LoggerFactory;
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Span;
+import co.elastic.apm.api.Transaction;
+
+public final class RemoteEJBCallBudgetReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteEJBCallBudgetReporter.class);
+
+    private RemoteEJBCallBudgetReporter() {
+    }
+
+    public static void record(RemoteEJBMethod method, long nanos) {
+        Transaction transaction = ElasticApm.currentTransaction();
+        boolean sampled = transaction.isSampled();
+        int callCountWarningThreshold = RemoteEJBConfiguration.getCallCountWarningThreshold();
+        if (!sampled && callCountWarningThreshold <= 0) {
+            return;
+        }
+
+        String transactionId = transaction.getId();
+        if (transactionId.isEmpty()) {
+            return;
+        }
+
+        RemoteEJBCallBudget budget = RemoteEJBCallBudget.of(transactionId);
+        int callCount = budget.record(method.getViewClass(), nanos);
+
+        if (sampled && !budget.isEndedByPlugin()) {
+            setLabels(transaction, budget);
+        }
+
+        if (callCountWarningThreshold > 0 && callCount == callCountWarningThreshold) {
+            logger.warn("Transaction {} of trace {} made {} remote EJB calls, the last one to {}", transactionId, transaction.getTraceId(), callCountWarningThreshold, method.getName());
+        }
+    }
+
+    public static void startTransaction(Span transaction) {
+        if (transaction.isSampled()) {
+            RemoteEJBCallBudget.enterPluginTransaction(transaction);
+        }
+    }
+
+    public static void endTransaction(Span transaction) {
+        if (!transaction.isSampled()) {
+            return;
+        }
+
+        RemoteEJBCallBudget.exitPluginTransaction();
+        RemoteEJBCallBudget budget = RemoteEJBCallBudget.remove(transaction.getId());
+        if (budget != null) {
+            setLabels(transaction, budget);
+        }
+    }
+
+    private static void setLabels(Span transaction, RemoteEJBCallBudget budget) {
+        transaction.setLabel("ejb_call_count", budget.getCallCount());
+        transaction.setLabel("ejb_call_ms", RemoteEJBClock.toMillis(budget.getCallNanos()));
+        transaction.setLabel("ejb_call_view_count", budget.getViewCount());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakConcurrent;
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakMap;
+import org.jboss.ejb.server.Request;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+
+public final class RemoteEJBCaller {
+
+    public static final String ATTACHMENT_NAME = "elastic-apm-caller";
+    public static final String UNKNOWN = "unknown";
+
+    private static final WeakMap<InetAddress, String> HOST_ADDRESSES = WeakConcurrent.buildMap();
+
+    private RemoteEJBCaller() {
+    }
+
+    public static void inject(Map<String, Object> contextData) {
+        String callerName = RemoteEJBConfiguration.getCallerName();
+        if (callerName != null) {
+            contextData.put(ATTACHMENT_NAME, callerName);
+        }
+    }
+
+    public static String getName(Map<String, Object> attachments) {
+        Object callerName = attachments.get(ATTACHMENT_NAME);
+        return callerName instanceof String ? (String) callerName : null;
+    }
+
+    public static String getAddress(Request request) {
+        SocketAddress peerAddress = request.getPeerAddress();
+        if (peerAddress instanceof InetSocketAddress && ((InetSocketAddress) peerAddress).getAddress() != null) {
+            InetAddress address = ((InetSocketAddress) peerAddress).getAddress();
+            String hostAddress = HOST_ADDRESSES.get(address);
+            if (hostAddress == null) {
+                hostAddress = address.getHostAddress();
+                HOST_ADDRESSES.put(address, hostAddress);
+            }
+            return hostAddress;
+        }
+
+        return peerAddress != null ? peerAddress.toString() : null;
+    }
+}
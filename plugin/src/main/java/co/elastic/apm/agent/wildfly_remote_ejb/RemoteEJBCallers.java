@@ -0,0 +1,127 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@GlobalState
+public final class RemoteEJBCallers implements RemoteEJBCallersMBean {
+
+    private static final RemoteEJBCallers INSTANCE = new RemoteEJBCallers();
+
+    private final ConcurrentMap<String, Caller> callers = new ConcurrentHashMap<>();
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    RemoteEJBCallers() {
+    }
+
+    public static RemoteEJBCallers get() {
+        INSTANCE.register();
+        return INSTANCE;
+    }
+
+    public void record(String callerName, String method, long nanos, int capacity) {
+        String key = callerName + ' ' + method;
+
+        Caller caller = callers.get(key);
+        if (caller == null) {
+            caller = add(key, capacity);
+        }
+
+        caller.count.increment();
+        caller.nanos.add(nanos);
+    }
+
+    private synchronized Caller add(String key, int capacity) {
+        Caller caller = callers.get(key);
+        if (caller != null) {
+            return caller;
+        }
+
+        caller = new Caller();
+        if (callers.size() >= capacity) {
+            String minKey = null;
+            long minNanos = Long.MAX_VALUE;
+            for (Map.Entry<String, Caller> candidate : callers.entrySet()) {
+                long candidateNanos = candidate.getValue().nanos.sum();
+                if (candidateNanos < minNanos) {
+                    minKey = candidate.getKey();
+                    minNanos = candidateNanos;
+                }
+            }
+
+            Caller evicted = minKey != null ? callers.remove(minKey) : null;
+            if (evicted != null) {
+                caller.count.add(evicted.count.sum());
+                caller.nanos.add(evicted.nanos.sum());
+            }
+        }
+        callers.put(key, caller);
+
+        return caller;
+    }
+
+    @Override
+    public int getSize() {
+        return callers.size();
+    }
+
+    @Override
+    public String[] getTopCallers(int count) {
+        List<Map.Entry<String, long[]>> snapshot = new ArrayList<>(callers.size());
+        for (Map.Entry<String, Caller> entry : callers.entrySet()) {
+            snapshot.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), new long[]{entry.getValue().count.sum(), entry.getValue().nanos.sum()}));
+        }
+        snapshot.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+
+        String[] topCallers = new String[Math.max(0, Math.min(count, snapshot.size()))];
+        for (int i = 0; i < topCallers.length; i++) {
+            Map.Entry<String, long[]> entry = snapshot.get(i);
+            topCallers[i] = String.format(Locale.ROOT, "%s calls=%d server_ms=%.3f", entry.getKey(), entry.getValue()[0], entry.getValue()[1] / 1_000_000d);
+        }
+
+        return topCallers;
+    }
+
+    @Override
+    public void reset() {
+        callers.clear();
+    }
+
+    private void register() {
+        if (registered.get() || !registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        RemoteEJBMBeans.register(this, "Callers", "server");
+    }
+
+    private static final class Caller {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -17,7 +17,6 @@ package co.elastic.apm.agent.wildfly_remote_ejb;
 
 import co.elastic.apm.api.ElasticApm;
 import co.elastic.apm.api.Outcome;
-import co.elastic.apm.api.Scope;
 import co.elastic.apm.api.Span;
 import net.bytebuddy.asm.Advice;
 import org.jboss.ejb.client.EJBLocator;
@@ -29,34 +28,76 @@ public class RemoteEJBClientAdvice {
 
     @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
     public static Object onEnterInvoke(@Advice.FieldValue("locatorRef") AtomicReference<EJBLocator<?>> locatorRef, @Advice.Argument(1) Method method) {
-        Span parent = ElasticApm.currentSpan();
-        if (parent.getId().isEmpty()) {
+        RemoteEJBMethod remoteEJBMethod = RemoteEJBMethod.of(locatorRef.get().getViewType(), method);
+        if (remoteEJBMethod.isIgnored()) {
             return null;
         }
 
-        Span span = parent.startExitSpan("external", "ejb", "call")
-                .setName("Call " + locatorRef.get().getViewType().getSimpleName() + "#" + method.getName());
+        Span span = null;
+        Span parent = ElasticApm.currentSpan();
+        if (parent.isSampled() && remoteEJBMethod.tryAcquireClientSpan()) {
+            span = parent.startExitSpan("external", "ejb", "call")
+                    .setName(remoteEJBMethod.getSpanName());
+        }
+
+        RemoteEJBCall call = RemoteEJBCall.enterClient(remoteEJBMethod);
+        if (span != null) {
+            call.activate(parent, span);
+        }
 
-        return span.activate();
+        return call;
     }
 
     @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
-    public static void onExitInvoke(@Advice.Enter Object scopeOrNull, @Advice.Thrown Throwable t) {
-        if (scopeOrNull == null) {
+    public static void onExitInvoke(@Advice.Enter Object callOrNull, @Advice.Thrown Throwable t) {
+        boolean asyncDispatch = RemoteEJBClientInvocation.isAsyncDispatch();
+        if (callOrNull == null) {
             return;
         }
 
+        RemoteEJBCall call = (RemoteEJBCall) callOrNull;
         try {
-            Span span = ElasticApm.currentSpan();
+            long nanos = System.nanoTime() - call.getStartNanoTime();
+
+            RemoteEJBCallBudgetReporter.record(call.getMethod(), nanos);
+
+            RemoteEJBClientInvocation invocation = call.getInvocation();
+            if (asyncDispatch && t == null) {
+                if (invocation != null) {
+                    invocation.onCallerExit();
+                }
+                return;
+            }
+
+            if (invocation != null && !invocation.tryEndSync()) {
+                return;
+            }
+
+            if (RemoteEJBConfiguration.isLatencyHistograms()) {
+                call.getMethod().getClientLatencyHistogram().record(nanos / 1000);
+            }
+
+            if (invocation != null) {
+                invocation.recordPayloadSizes();
+            }
+
+            Span span = call.getSpan();
+            if (span == null) {
+                return;
+            }
+
+            if (invocation != null) {
+                invocation.report(t);
+            }
+
             if (t != null) {
-                span.captureException(t);
-                span.setOutcome(Outcome.FAILURE);
+                RemoteEJBExceptionType.report(span, t, false);
             } else {
                 span.setOutcome(Outcome.SUCCESS);
             }
             span.end();
         } finally {
-            ((Scope) scopeOrNull).close();
+            call.exit();
         }
     }
 }
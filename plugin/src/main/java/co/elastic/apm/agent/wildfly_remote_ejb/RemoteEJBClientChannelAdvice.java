@@ -0,0 +1,40 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Span;
+import net.bytebuddy.asm.Advice;
+import org.xnio.IoFuture;
+
+public class RemoteEJBClientChannelAdvice {
+
+    @Advice.OnMethodExit(suppress = Throwable.class, inline = false)
+    public static void onExitOpenChannel(@Advice.Argument(0) String serviceType, @Advice.Return IoFuture<?> future) {
+        if (future == null || future.getStatus() != IoFuture.Status.WAITING) {
+            return;
+        }
+
+        RemoteEJBClientFrame frame = RemoteEJBClientFrame.current();
+        Span parent = RemoteEJBClientFrame.currentInternalSpanParent();
+        if (frame == null || !parent.isSampled()) {
+            return;
+        }
+
+        RemoteEJBPendingSpan span = new RemoteEJBPendingSpan(parent.startSpan("external", "remoting", "channel").setName("Open channel " + serviceType));
+        frame.addPendingSpan(span);
+        future.addNotifier(RemoteEJBIoFutureNotifier.CHANNEL, span);
+    }
+}
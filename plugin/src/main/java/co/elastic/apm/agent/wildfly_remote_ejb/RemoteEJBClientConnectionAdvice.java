@@ -0,0 +1,62 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Span;
+import net.bytebuddy.asm.Advice;
+import org.xnio.IoFuture;
+
+import java.net.URI;
+
+public class RemoteEJBClientConnectionAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static long onEnterGetConnectedIdentity() {
+        return System.nanoTime();
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, inline = false)
+    public static void onExitGetConnectedIdentity(@Advice.Argument(0) URI destination, @Advice.Enter long startNanoTime, @Advice.Return IoFuture<?> future) {
+        if (future == null) {
+            return;
+        }
+
+        boolean established = future.getStatus() == IoFuture.Status.DONE;
+        RemoteEJBDiscovery.onConnection(established);
+        RemoteEJBConnections.get().onConnection(established);
+        if (established) {
+            return;
+        }
+
+        Span current = ElasticApm.currentSpan();
+        if (current.isSampled()) {
+            current.setLabel("ejb_connection_opened", true);
+        }
+
+        RemoteEJBPendingSpan span = null;
+        RemoteEJBClientFrame frame = RemoteEJBClientFrame.current();
+        Span parent = RemoteEJBClientFrame.currentInternalSpanParent();
+        if (frame != null && parent.isSampled()) {
+            span = new RemoteEJBPendingSpan(parent.startSpan("external", "remoting", "connect")
+                    .setName(destination.getPort() > 0 ? "Connect " + destination.getHost() + ":" + destination.getPort() : "Connect " + destination.getHost())
+                    .setStartTimestamp(RemoteEJBClock.toEpochMicros(startNanoTime)));
+            frame.addPendingSpan(span);
+        }
+
+        future.addNotifier(RemoteEJBIoFutureNotifier.CONNECTION, span);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Span;
+import net.bytebuddy.asm.Advice;
+
+public class RemoteEJBClientDiscoveryAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static void onEnterDiscovery() {
+        RemoteEJBDiscovery.enter();
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitDiscovery(@Advice.Thrown Throwable t) {
+        RemoteEJBDiscovery discovery = RemoteEJBDiscovery.exit();
+        if (discovery == null) {
+            return;
+        }
+
+        long endNanoTime = System.nanoTime();
+        if (t == null && discovery.isCacheHit() && endNanoTime - discovery.getStartNanoTime() < RemoteEJBConfiguration.getDiscoverySpanMinDurationNanos()) {
+            return;
+        }
+
+        Span parent = RemoteEJBClientFrame.currentInternalSpanParent();
+        if (!parent.isSampled()) {
+            return;
+        }
+
+        RemoteEJBCall call = RemoteEJBCall.currentClient();
+
+        Span span = parent.startSpan("app", "ejb", "discovery")
+                .setName(call != null ? "Discovery " + call.getMethod().getName() : "Discovery")
+                .setStartTimestamp(RemoteEJBClock.toEpochMicros(discovery.getStartNanoTime()))
+                .setLabel("ejb_discovery_source", discovery.isCacheHit() ? "cache" : "network")
+                .setLabel("ejb_discovery_connections", discovery.getConnectionCount());
+        if (t != null) {
+            span.captureException(t);
+            span.setOutcome(Outcome.FAILURE);
+        } else {
+            span.setOutcome(Outcome.SUCCESS);
+        }
+        span.end(RemoteEJBClock.toEpochMicros(endNanoTime));
+    }
+}
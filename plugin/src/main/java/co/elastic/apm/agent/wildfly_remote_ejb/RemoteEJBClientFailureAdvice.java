@@ -15,20 +15,18 @@
  */
 package co.elastic.apm.agent.wildfly_remote_ejb;
 
-import co.elastic.apm.api.ElasticApm;
-import co.elastic.apm.api.Span;
 import net.bytebuddy.asm.Advice;
 import org.jboss.ejb.client.EJBClientInvocationContext;
 
-public class RemoteEJBClientPropagationAdvice {
+public class RemoteEJBClientFailureAdvice {
 
     @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
-    public static void onEnterSendRequestInitial(@Advice.This EJBClientInvocationContext ejbClientInvocationContext) {
-        Span span = ElasticApm.currentSpan();
-        if (span.getId().isEmpty()) {
+    public static void onEnterFailed(@Advice.This EJBClientInvocationContext ejbClientInvocationContext, @Advice.Argument(0) Exception exception) {
+        RemoteEJBClientInvocation invocation = ejbClientInvocationContext.getAttachment(RemoteEJBClientInvocation.ATTACHMENT_KEY);
+        if (invocation == null) {
             return;
         }
 
-        span.injectTraceHeaders(new MapTextHeaderAccessor(ejbClientInvocationContext.getContextData()));
+        invocation.onFailed(exception);
     }
 }
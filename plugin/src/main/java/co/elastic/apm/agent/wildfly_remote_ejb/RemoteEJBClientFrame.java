@@ -0,0 +1,104 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Span;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@GlobalState
+public final class RemoteEJBClientFrame {
+
+    private static final ThreadLocal<RemoteEJBClientFrame> CURRENT = new ThreadLocal<>();
+
+    private RemoteEJBClientFrame child;
+
+    private boolean active;
+    private Span internalSpanParent;
+    private List<RemoteEJBPendingSpan> pendingSpans;
+
+    private RemoteEJBClientFrame() {
+    }
+
+    public static RemoteEJBClientFrame enter() {
+        RemoteEJBClientFrame frame = CURRENT.get();
+        if (frame == null) {
+            frame = new RemoteEJBClientFrame();
+            CURRENT.set(frame);
+        }
+
+        while (frame.active) {
+            if (frame.child == null) {
+                frame.child = new RemoteEJBClientFrame();
+            }
+            frame = frame.child;
+        }
+
+        frame.active = true;
+        return frame;
+    }
+
+    public static RemoteEJBClientFrame current() {
+        RemoteEJBClientFrame frame = CURRENT.get();
+        if (frame == null || !frame.active) {
+            return null;
+        }
+
+        while (frame.child != null && frame.child.active) {
+            frame = frame.child;
+        }
+
+        return frame;
+    }
+
+    public static Span currentInternalSpanParent() {
+        RemoteEJBClientFrame frame = current();
+        if (frame != null && frame.internalSpanParent != null) {
+            return frame.internalSpanParent;
+        }
+
+        return ElasticApm.currentSpan();
+    }
+
+    public void setInternalSpanParent(Span internalSpanParent) {
+        this.internalSpanParent = internalSpanParent;
+    }
+
+    public void addPendingSpan(RemoteEJBPendingSpan pendingSpan) {
+        if (pendingSpans == null) {
+            pendingSpans = new ArrayList<>();
+        }
+        pendingSpans.add(pendingSpan);
+    }
+
+    public void exit() {
+        try {
+            if (pendingSpans != null && !pendingSpans.isEmpty()) {
+                for (RemoteEJBPendingSpan pendingSpan : pendingSpans) {
+                    pendingSpan.end(Outcome.UNKNOWN, null);
+                }
+                pendingSpans.clear();
+            }
+        } finally {
+            active = false;
+            internalSpanParent = null;
+        }
+    }
+}
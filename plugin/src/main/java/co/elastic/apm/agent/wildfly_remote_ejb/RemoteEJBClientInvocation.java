@@ -0,0 +1,298 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.weakconcurrent.DetachedThreadLocal;
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakConcurrent;
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Span;
+import org.jboss.ejb.client.AttachmentKey;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+public final class RemoteEJBClientInvocation {
+
+    public static final AttachmentKey<RemoteEJBClientInvocation> ATTACHMENT_KEY = new AttachmentKey<>();
+
+    private static final int PENDING = 0;
+    private static final int RESULT_READY = 1;
+    private static final int ASYNC = 2;
+    private static final int ASYNC_RESULT_READY = 3;
+    private static final int ENDED = 4;
+
+    private static final AtomicIntegerFieldUpdater<RemoteEJBClientInvocation> STATE = AtomicIntegerFieldUpdater.newUpdater(RemoteEJBClientInvocation.class, "state");
+
+    private final RemoteEJBMethod method;
+    private final long startNanoTime;
+    private final Span parentSpan;
+    private final Span span;
+
+    private volatile int state = PENDING;
+
+    private int attempts;
+    private long attemptStartNanoTime;
+    private URI attemptDestination;
+    private Throwable attemptFailure;
+    private boolean callerExited;
+
+    private long sentNanoTime;
+    private long resultNanoTime;
+    private long marshalNanos;
+    private long waitNanos;
+    private long unmarshalNanos;
+    private long requestBytes = -1;
+    private long responseBytes = -1;
+    private int resultDepth;
+    private int retrievalDepth;
+
+    public RemoteEJBClientInvocation(RemoteEJBMethod method, long startNanoTime, Span parentSpan, Span span) {
+        this.method = method;
+        this.startNanoTime = startNanoTime;
+        this.parentSpan = parentSpan;
+        this.span = span;
+    }
+
+    public static void setAsyncDispatch() {
+        AsyncDispatch.CURRENT.set(Boolean.TRUE);
+    }
+
+    public static boolean isAsyncDispatch() {
+        return AsyncDispatch.CURRENT.getAndRemove() != null;
+    }
+
+    public Span getSpan() {
+        return span;
+    }
+
+    public synchronized void onAttemptStart() {
+        long nanoTime = System.nanoTime();
+        if (attempts > 0) {
+            reportAttempt(nanoTime, attemptFailure, true);
+        }
+
+        attempts++;
+        attemptStartNanoTime = nanoTime;
+        attemptDestination = null;
+        attemptFailure = null;
+        STATE.compareAndSet(this, ASYNC_RESULT_READY, ASYNC);
+    }
+
+    public synchronized void onAttemptSent(URI destination, Throwable t) {
+        attemptDestination = destination;
+        if (t != null) {
+            attemptFailure = t;
+        }
+    }
+
+    public synchronized void onAttemptFailed(Throwable t) {
+        if (attemptFailure == null) {
+            attemptFailure = t;
+        }
+    }
+
+    public synchronized void onMarshalled(long startNanoTime, long endNanoTime, long requestBytes) {
+        marshalNanos += endNanoTime - startNanoTime;
+        sentNanoTime = endNanoTime;
+        if (requestBytes >= 0) {
+            this.requestBytes = requestBytes;
+        }
+    }
+
+    public synchronized boolean onResultStart() {
+        return resultDepth++ == 0;
+    }
+
+    public synchronized void onResultEnd(long startNanoTime, long responseBytes) {
+        if (--resultDepth == 0) {
+            unmarshalNanos += System.nanoTime() - startNanoTime;
+            if (responseBytes >= 0) {
+                this.responseBytes = responseBytes;
+            }
+        }
+    }
+
+    public synchronized void recordPayloadSizes() {
+        if (RemoteEJBConfiguration.isPayloadSizes()) {
+            PayloadSize payloadSize = method.getClientPayloadSize();
+            payloadSize.recordRequest(requestBytes);
+            payloadSize.recordResponse(responseBytes);
+        }
+    }
+
+    public synchronized void onCallerExit() {
+        callerExited = true;
+    }
+
+    synchronized int getAttempts() {
+        return attempts;
+    }
+
+    synchronized URI getAttemptDestination() {
+        return attemptDestination;
+    }
+
+    synchronized Throwable getAttemptFailure() {
+        return attemptFailure;
+    }
+
+    public void report(Throwable t) {
+        report(t, System.nanoTime());
+    }
+
+    private synchronized void report(Throwable t, long endNanoTime) {
+        if (span == null) {
+            return;
+        }
+
+        span.setLabel("ejb_attempts", attempts);
+        if (attempts > 1) {
+            reportAttempt(endNanoTime, t, t != null);
+        }
+
+        if (RemoteEJBConfiguration.isPhaseBreakdown() && marshalNanos > 0) {
+            span.setLabel("ejb_marshal_ms", RemoteEJBClock.toMillis(marshalNanos));
+            span.setLabel("ejb_wait_ms", RemoteEJBClock.toMillis(waitNanos));
+            span.setLabel("ejb_unmarshal_ms", RemoteEJBClock.toMillis(unmarshalNanos));
+        }
+
+        if (requestBytes >= 0) {
+            span.setLabel("ejb_request_bytes", requestBytes);
+        }
+        if (responseBytes >= 0) {
+            span.setLabel("ejb_response_bytes", responseBytes);
+        }
+    }
+
+    private void reportAttempt(long endNanoTime, Throwable failure, boolean failed) {
+        if (span == null || parentSpan == null || callerExited) {
+            return;
+        }
+
+        Span attempt = parentSpan.startSpan("external", "ejb", "attempt")
+                .setName("Attempt " + method.getName())
+                .setStartTimestamp(RemoteEJBClock.toEpochMicros(attemptStartNanoTime))
+                .setLabel("ejb_attempt", attempts);
+        if (attemptDestination != null) {
+            attempt.setLabel("ejb_attempt_host", attemptDestination.getHost());
+            if (attemptDestination.getPort() > 0) {
+                attempt.setLabel("ejb_attempt_port", attemptDestination.getPort());
+            }
+        }
+        if (failure != null) {
+            attempt.setLabel("ejb_attempt_failure", failure.getClass().getName());
+        }
+        attempt.setOutcome(failed ? Outcome.FAILURE : Outcome.SUCCESS);
+        attempt.end(RemoteEJBClock.toEpochMicros(endNanoTime));
+    }
+
+    public boolean onAsync() {
+        return STATE.compareAndSet(this, PENDING, ASYNC);
+    }
+
+    public boolean tryEndSync() {
+        int currentState;
+        do {
+            currentState = state;
+            if (currentState == ENDED) {
+                return false;
+            }
+        } while (!STATE.compareAndSet(this, currentState, ENDED));
+
+        return true;
+    }
+
+    public void onResultReady() {
+        long nanoTime = System.nanoTime();
+        synchronized (this) {
+            if (sentNanoTime != 0) {
+                waitNanos += nanoTime - sentNanoTime;
+                sentNanoTime = 0;
+            }
+            resultNanoTime = nanoTime;
+        }
+
+        if (!STATE.compareAndSet(this, PENDING, RESULT_READY)) {
+            STATE.compareAndSet(this, ASYNC, ASYNC_RESULT_READY);
+        }
+    }
+
+    public void onCancelled() {
+        onResultReady();
+        if (STATE.compareAndSet(this, ASYNC_RESULT_READY, ENDED)) {
+            end(null, getResultNanoTime(), Outcome.UNKNOWN);
+        }
+    }
+
+    public void onFailed(Throwable t) {
+        synchronized (this) {
+            attemptFailure = t;
+        }
+
+        if (STATE.compareAndSet(this, ASYNC, ENDED) || STATE.compareAndSet(this, ASYNC_RESULT_READY, ENDED)) {
+            end(t, System.nanoTime(), Outcome.FAILURE);
+        }
+    }
+
+    public synchronized void onRetrievalStart() {
+        retrievalDepth++;
+    }
+
+    public void onRetrievalEnd(Throwable t) {
+        synchronized (this) {
+            if (t != null) {
+                onAttemptFailed(t);
+            }
+            if (--retrievalDepth > 0) {
+                return;
+            }
+        }
+
+        if (STATE.compareAndSet(this, ASYNC_RESULT_READY, ENDED)) {
+            end(t, getResultNanoTime(), Outcome.SUCCESS);
+        }
+    }
+
+    private synchronized long getResultNanoTime() {
+        return resultNanoTime;
+    }
+
+    private void end(Throwable t, long endNanoTime, Outcome outcome) {
+        if (RemoteEJBConfiguration.isLatencyHistograms()) {
+            method.getClientLatencyHistogram().record((endNanoTime - startNanoTime) / 1000);
+        }
+
+        recordPayloadSizes();
+
+        if (span == null) {
+            return;
+        }
+
+        report(t, endNanoTime);
+
+        if (t != null) {
+            RemoteEJBExceptionType.report(span, t, false);
+        } else {
+            span.setOutcome(outcome);
+        }
+        span.end(RemoteEJBClock.toEpochMicros(endNanoTime));
+    }
+
+    private static final class AsyncDispatch {
+
+        private static final DetachedThreadLocal<Boolean> CURRENT = WeakConcurrent.buildThreadLocal();
+    }
+}
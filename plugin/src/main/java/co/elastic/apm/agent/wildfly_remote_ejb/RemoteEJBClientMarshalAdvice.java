@@ -0,0 +1,44 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import net.bytebuddy.asm.Advice;
+import org.jboss.ejb.client.EJBReceiverInvocationContext;
+
+public class RemoteEJBClientMarshalAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static long onEnterProcessInvocation() {
+        if (RemoteEJBConfiguration.isPayloadSizes()) {
+            RemoteEJBPayload.start();
+        }
+
+        return System.nanoTime();
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitProcessInvocation(@Advice.Argument(0) EJBReceiverInvocationContext receiverContext, @Advice.Enter long startNanoTime) {
+        long endNanoTime = System.nanoTime();
+        long requestBytes = RemoteEJBConfiguration.isPayloadSizes() ? RemoteEJBPayload.stop() : -1;
+
+        RemoteEJBClientInvocation invocation = receiverContext.getClientInvocationContext().getAttachment(RemoteEJBClientInvocation.ATTACHMENT_KEY);
+        if (invocation == null) {
+            return;
+        }
+
+        invocation.onMarshalled(startNanoTime, endNanoTime, requestBytes);
+    }
+}
@@ -15,33 +15,28 @@
  */
 package co.elastic.apm.agent.wildfly_remote_ejb;
 
-import co.elastic.apm.api.ElasticApm;
-import co.elastic.apm.api.Span;
 import net.bytebuddy.asm.Advice;
 import org.jboss.ejb.client.EJBClientInvocationContext;
 
-import java.net.URI;
+public class RemoteEJBClientRetrievalAdvice {
 
-public class RemoteEJBClientDestinationAdvice {
-
-    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
-    public static void onExitSendRequestInitial(@Advice.This EJBClientInvocationContext ejbClientInvocationContext) {
-        Span span = ElasticApm.currentSpan();
-        if (span.getId().isEmpty()) {
-            return;
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static Object onEnterGetResult(@Advice.This EJBClientInvocationContext ejbClientInvocationContext) {
+        RemoteEJBClientInvocation invocation = ejbClientInvocationContext.getAttachment(RemoteEJBClientInvocation.ATTACHMENT_KEY);
+        if (invocation == null) {
+            return null;
         }
 
-        URI destination = ejbClientInvocationContext.getDestination();
-        if (destination == null) {
+        invocation.onRetrievalStart();
+        return invocation;
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitGetResult(@Advice.Enter Object invocationOrNull, @Advice.Thrown Throwable t) {
+        if (invocationOrNull == null) {
             return;
         }
 
-        span.setDestinationAddress(destination.getHost(), destination.getPort());
-
-        if (destination.getPort() > 0) {
-            span.setDestinationService(destination.getHost() + ":" + destination.getPort());
-        } else {
-            span.setDestinationService(destination.getHost());
-        }
+        ((RemoteEJBClientInvocation) invocationOrNull).onRetrievalEnd(t);
     }
 }
@@ -0,0 +1,92 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Span;
+import net.bytebuddy.asm.Advice;
+import org.jboss.ejb.client.EJBClientInvocationContext;
+
+import java.net.URI;
+
+public class RemoteEJBClientSendRequestAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static Object onEnterSendRequestInitial(@Advice.This EJBClientInvocationContext ejbClientInvocationContext) {
+        RemoteEJBCall call = RemoteEJBCall.currentClient();
+
+        RemoteEJBClientInvocation invocation = ejbClientInvocationContext.getAttachment(RemoteEJBClientInvocation.ATTACHMENT_KEY);
+        if (invocation == null && call != null) {
+            invocation = new RemoteEJBClientInvocation(call.getMethod(), call.getStartNanoTime(), call.getParentSpan(), call.getSpan());
+            ejbClientInvocationContext.putAttachment(RemoteEJBClientInvocation.ATTACHMENT_KEY, invocation);
+            call.setInvocation(invocation);
+        }
+
+        if (invocation != null) {
+            invocation.onAttemptStart();
+        }
+
+        if (RemoteEJBConfiguration.isCallerAttribution()) {
+            RemoteEJBCaller.inject(ejbClientInvocationContext.getContextData());
+        }
+
+        Span span = ElasticApm.currentSpan();
+        if (RemoteEJBConfiguration.isSpanCompression() && call != null && call.getParentSpan() != null) {
+            span = call.getParentSpan();
+        }
+
+        if (span.getId().isEmpty()) {
+            return invocation;
+        }
+
+        if (RemoteEJBConfiguration.isBinaryTraceContext()) {
+            span.injectTraceHeaders(new BinaryTraceContextHeaderInjector(ejbClientInvocationContext.getContextData()));
+        } else {
+            span.injectTraceHeaders(new MapTextHeaderAccessor(ejbClientInvocationContext.getContextData()));
+        }
+
+        return invocation;
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitSendRequestInitial(@Advice.This EJBClientInvocationContext ejbClientInvocationContext, @Advice.Enter Object invocationOrNull, @Advice.Thrown Throwable t) {
+        if (invocationOrNull == null) {
+            return;
+        }
+
+        RemoteEJBClientInvocation invocation = (RemoteEJBClientInvocation) invocationOrNull;
+        URI destination = ejbClientInvocationContext.getDestination();
+        invocation.onAttemptSent(destination, t);
+        setDestination(invocation.getSpan(), destination);
+    }
+
+    static void setDestination(Span span, URI destination) {
+        if (span == null || destination == null) {
+            return;
+        }
+
+        span.setDestinationAddress(destination.getHost(), destination.getPort());
+        if (destination.getScheme() != null) {
+            span.setLabel("ejb_transport", destination.getScheme());
+        }
+
+        if (destination.getPort() > 0) {
+            span.setDestinationService(destination.getHost() + ":" + destination.getPort());
+        } else {
+            span.setDestinationService(destination.getHost());
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package co.elastic.apm.agent.wildfly_remote_ejb;
 
 import co.elastic.apm.agent.sdk.ElasticApmInstrumentation;
+import net.bytebuddy.description.NamedElement;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
@@ -23,9 +24,21 @@ import net.bytebuddy.matcher.ElementMatcher;
 import java.util.Arrays;
 import java.util.Collection;
 
+import static co.elastic.apm.agent.sdk.bytebuddy.CustomElementMatchers.classLoaderCanLoadClass;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
 import static net.bytebuddy.matcher.ElementMatchers.named;
 
-public class RemoteEJBClientDestinationInstrumentation extends ElasticApmInstrumentation {
+public class RemoteEJBClientSendRequestInstrumentation extends ElasticApmInstrumentation {
+
+    @Override
+    public ElementMatcher.Junction<ClassLoader> getClassLoaderMatcher() {
+        return classLoaderCanLoadClass("org.jboss.ejb.client.EJBClientInvocationContext");
+    }
+
+    @Override
+    public ElementMatcher<? super NamedElement> getTypeMatcherPreFilter() {
+        return nameStartsWith("org.jboss.ejb.");
+    }
 
     @Override
     public ElementMatcher<? super TypeDescription> getTypeMatcher() {
@@ -44,6 +57,6 @@ public class RemoteEJBClientDestinationInstrumentation extends ElasticApmInstrum
 
     @Override
     public String getAdviceClassName() {
-        return "co.elastic.apm.agent.wildfly_remote_ejb.RemoteEJBClientDestinationAdvice";
+        return "co.elastic.apm.agent.wildfly_remote_ejb.RemoteEJBClientSendRequestAdvice";
     }
 }
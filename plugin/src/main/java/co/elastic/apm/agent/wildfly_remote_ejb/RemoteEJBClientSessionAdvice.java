@@ -0,0 +1,49 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Span;
+import net.bytebuddy.asm.Advice;
+import org.jboss.ejb.client.EJBReceiverSessionCreationContext;
+import org.jboss.ejb.client.EJBSessionCreationInvocationContext;
+
+public class RemoteEJBClientSessionAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static Object onEnterCreateSession(@Advice.Argument(0) EJBReceiverSessionCreationContext receiverContext) {
+        String name = "Create session " + receiverContext.getClientInvocationContext().getLocator().getViewType().getSimpleName();
+
+        Span span = null;
+        Span parent = RemoteEJBClientFrame.currentInternalSpanParent();
+        if (parent.isSampled()) {
+            span = parent.startExitSpan("external", "ejb", "session").setName(name);
+        }
+
+        return new RemoteEJBSession(name, System.nanoTime(), span, null);
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitCreateSession(@Advice.Argument(0) EJBReceiverSessionCreationContext receiverContext, @Advice.Enter Object sessionOrNull, @Advice.Thrown Throwable t) {
+        if (sessionOrNull == null) {
+            return;
+        }
+
+        RemoteEJBSession session = (RemoteEJBSession) sessionOrNull;
+        EJBSessionCreationInvocationContext invocationContext = receiverContext.getClientInvocationContext();
+        RemoteEJBClientSendRequestAdvice.setDestination(session.getSpan(), invocationContext.getDestination());
+        session.end(LatencyHistograms.clientSessions(), t);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import net.bytebuddy.asm.Advice;
+import org.jboss.ejb.client.EJBClientInvocationContext;
+
+public class RemoteEJBClientUnmarshalAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static long onEnterGetResult(@Advice.This EJBClientInvocationContext ejbClientInvocationContext) {
+        RemoteEJBClientInvocation invocation = ejbClientInvocationContext.getAttachment(RemoteEJBClientInvocation.ATTACHMENT_KEY);
+        if (invocation == null) {
+            return 0;
+        }
+
+        invocation.onResultStart();
+        if (RemoteEJBConfiguration.isPayloadSizes()) {
+            RemoteEJBPayload.start();
+        }
+
+        return System.nanoTime();
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitGetResult(@Advice.This EJBClientInvocationContext ejbClientInvocationContext, @Advice.Enter long startNanoTime) {
+        if (startNanoTime == 0) {
+            return;
+        }
+
+        RemoteEJBClientInvocation invocation = ejbClientInvocationContext.getAttachment(RemoteEJBClientInvocation.ATTACHMENT_KEY);
+        if (invocation == null) {
+            return;
+        }
+
+        long responseBytes = RemoteEJBConfiguration.isPayloadSizes() ? RemoteEJBPayload.stop() : -1;
+        invocation.onResultEnd(startNanoTime, responseBytes);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+public final class RemoteEJBClock {
+
+    private static final long EPOCH_MICROS = System.currentTimeMillis() * 1000;
+    private static final long NANO_TIME = System.nanoTime();
+
+    private RemoteEJBClock() {
+    }
+
+    public static long epochMicros() {
+        return toEpochMicros(System.nanoTime());
+    }
+
+    public static long toEpochMicros(long nanoTime) {
+        return EPOCH_MICROS + (nanoTime - NANO_TIME) / 1000;
+    }
+
+    public static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
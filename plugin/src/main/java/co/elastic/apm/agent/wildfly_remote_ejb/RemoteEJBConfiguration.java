@@ -0,0 +1,214 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public final class RemoteEJBConfiguration {
+
+    private static final boolean BINARY_TRACE_CONTEXT = getBoolean("ejb_binary_trace_context", false);
+    private static final Set<String> IGNORE_METHODS = getSet("ejb_ignore_methods");
+    private static final Set<String> INCLUDE_METHODS = getSet("ejb_include_methods");
+    private static final boolean CALLER_ATTRIBUTION = getBoolean("ejb_caller_attribution", false);
+    private static final String CALLER_NAME = getCallerName("ejb_caller_name", "service_name");
+    private static final int CALLER_TABLE_SIZE = getInt("ejb_caller_table_size", 100);
+    private static final boolean SPAN_COMPRESSION = getBoolean("ejb_span_compression", false);
+    private static final int CALL_COUNT_WARNING_THRESHOLD = getInt("ejb_call_count_warning_threshold", 0);
+    private static final int SPAN_RATE_LIMIT = getInt("ejb_span_rate_limit", 0);
+    private static final int SPAN_RATE_BUDGET = getInt("ejb_span_rate_budget", 10);
+    private static final boolean LATENCY_HISTOGRAMS = getBoolean("ejb_latency_histograms", true);
+    private static final long POOL_WAIT_THRESHOLD_NANOS = getDurationNanos("ejb_pool_wait_threshold", TimeUnit.MILLISECONDS.toNanos(1));
+    private static final long QUEUE_WAIT_THRESHOLD_NANOS = getDurationNanos("ejb_queue_wait_threshold", TimeUnit.MILLISECONDS.toNanos(1));
+    private static final long LOCK_WAIT_THRESHOLD_NANOS = getDurationNanos("ejb_lock_wait_threshold", TimeUnit.MILLISECONDS.toNanos(1));
+    private static final long DISCOVERY_SPAN_MIN_DURATION_NANOS = getDurationNanos("ejb_discovery_span_min_duration", TimeUnit.MILLISECONDS.toNanos(1));
+    private static final boolean PHASE_BREAKDOWN = getBoolean("ejb_phase_breakdown", false);
+    private static final boolean PAYLOAD_SIZES = getBoolean("ejb_payload_sizes", false);
+    private static final Set<String> EXPECTED_EXCEPTIONS = getSet("ejb_expected_exceptions");
+    private static final int EXCEPTION_CAPTURE_RATE_LIMIT = getInt("ejb_exception_capture_rate_limit", 0);
+    private static final boolean INTERCEPTOR_BREAKDOWN = getBoolean("ejb_interceptor_breakdown", false);
+    private static final long INTERCEPTOR_SPAN_MIN_DURATION_NANOS = getDurationNanos("ejb_interceptor_span_min_duration", TimeUnit.MILLISECONDS.toNanos(1));
+
+    private RemoteEJBConfiguration() {
+    }
+
+    public static boolean isBinaryTraceContext() {
+        return BINARY_TRACE_CONTEXT;
+    }
+
+    public static Set<String> getIgnoreMethods() {
+        return IGNORE_METHODS;
+    }
+
+    public static Set<String> getIncludeMethods() {
+        return INCLUDE_METHODS;
+    }
+
+    public static boolean isCallerAttribution() {
+        return CALLER_ATTRIBUTION;
+    }
+
+    public static String getCallerName() {
+        return CALLER_NAME;
+    }
+
+    public static int getCallerTableSize() {
+        return CALLER_TABLE_SIZE;
+    }
+
+    public static boolean isSpanCompression() {
+        return SPAN_COMPRESSION;
+    }
+
+    public static int getCallCountWarningThreshold() {
+        return CALL_COUNT_WARNING_THRESHOLD;
+    }
+
+    public static int getSpanRateLimit() {
+        return SPAN_RATE_LIMIT;
+    }
+
+    public static int getSpanRateBudget() {
+        return SPAN_RATE_BUDGET;
+    }
+
+    public static boolean isLatencyHistograms() {
+        return LATENCY_HISTOGRAMS;
+    }
+
+    public static long getPoolWaitThresholdNanos() {
+        return POOL_WAIT_THRESHOLD_NANOS;
+    }
+
+    public static long getQueueWaitThresholdNanos() {
+        return QUEUE_WAIT_THRESHOLD_NANOS;
+    }
+
+    public static long getLockWaitThresholdNanos() {
+        return LOCK_WAIT_THRESHOLD_NANOS;
+    }
+
+    public static long getDiscoverySpanMinDurationNanos() {
+        return DISCOVERY_SPAN_MIN_DURATION_NANOS;
+    }
+
+    public static boolean isPhaseBreakdown() {
+        return PHASE_BREAKDOWN;
+    }
+
+    public static boolean isPayloadSizes() {
+        return PAYLOAD_SIZES;
+    }
+
+    public static Set<String> getExpectedExceptions() {
+        return EXPECTED_EXCEPTIONS;
+    }
+
+    public static int getExceptionCaptureRateLimit() {
+        return EXCEPTION_CAPTURE_RATE_LIMIT;
+    }
+
+    public static boolean isInterceptorBreakdown() {
+        return INTERCEPTOR_BREAKDOWN;
+    }
+
+    public static long getInterceptorSpanMinDurationNanos() {
+        return INTERCEPTOR_SPAN_MIN_DURATION_NANOS;
+    }
+
+    static String getValue(String key) {
+        String value = System.getProperty("elastic.apm." + key);
+        if (value == null) {
+            value = System.getenv("ELASTIC_APM_" + key.toUpperCase(Locale.ROOT));
+        }
+
+        return value != null ? value.trim() : null;
+    }
+
+    private static String getCallerName(String key, String fallbackKey) {
+        String value = getValue(key);
+        if (value == null || value.isEmpty()) {
+            value = getValue(fallbackKey);
+        }
+
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getValue(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(value);
+    }
+
+    static int getInt(String key, int defaultValue) {
+        String value = getValue(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    static Set<String> getSet(String key) {
+        String value = getValue(key);
+        if (value == null || value.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> values = new HashSet<>();
+        for (String element : value.split(",")) {
+            element = element.trim();
+            if (!element.isEmpty()) {
+                values.add(element);
+            }
+        }
+
+        return Collections.unmodifiableSet(values);
+    }
+
+    static long getDurationNanos(String key, long defaultValue) {
+        String value = getValue(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            if (value.endsWith("ms")) {
+                return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2).trim()));
+            } else if (value.endsWith("us")) {
+                return TimeUnit.MICROSECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2).trim()));
+            } else if (value.endsWith("s")) {
+                return TimeUnit.SECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 1).trim()));
+            } else if (value.endsWith("m")) {
+                return TimeUnit.MINUTES.toNanos(Long.parseLong(value.substring(0, value.length() - 1).trim()));
+            } else {
+                return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value));
+            }
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
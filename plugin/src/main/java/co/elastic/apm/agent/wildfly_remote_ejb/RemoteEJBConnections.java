@@ -0,0 +1,82 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@GlobalState
+public final class RemoteEJBConnections implements RemoteEJBConnectionsMBean {
+
+    private static final RemoteEJBConnections INSTANCE = new RemoteEJBConnections();
+
+    private final LongAdder reusedCount = new LongAdder();
+    private final LongAdder openedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    RemoteEJBConnections() {
+    }
+
+    public static RemoteEJBConnections get() {
+        INSTANCE.register();
+        return INSTANCE;
+    }
+
+    public void onConnection(boolean established) {
+        if (established) {
+            reusedCount.increment();
+        } else {
+            openedCount.increment();
+        }
+    }
+
+    public void onConnectionFailed() {
+        failedCount.increment();
+    }
+
+    @Override
+    public long getReusedCount() {
+        return reusedCount.sum();
+    }
+
+    @Override
+    public long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    @Override
+    public void reset() {
+        reusedCount.reset();
+        openedCount.reset();
+        failedCount.reset();
+    }
+
+    private void register() {
+        if (registered.get() || !registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        RemoteEJBMBeans.register(this, "Connections", "client");
+    }
+}
@@ -0,0 +1,81 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+@GlobalState
+public final class RemoteEJBDiscovery {
+
+    private static final ThreadLocal<RemoteEJBDiscovery> CURRENT = new ThreadLocal<>();
+
+    private int depth;
+    private long startNanoTime;
+    private int connectionCount;
+    private int newConnectionCount;
+
+    private RemoteEJBDiscovery() {
+    }
+
+    public static void enter() {
+        RemoteEJBDiscovery discovery = CURRENT.get();
+        if (discovery == null) {
+            discovery = new RemoteEJBDiscovery();
+            CURRENT.set(discovery);
+        }
+
+        if (discovery.depth++ > 0) {
+            return;
+        }
+
+        discovery.startNanoTime = System.nanoTime();
+        discovery.connectionCount = 0;
+        discovery.newConnectionCount = 0;
+    }
+
+    public static RemoteEJBDiscovery exit() {
+        RemoteEJBDiscovery discovery = CURRENT.get();
+        if (discovery == null || discovery.depth == 0) {
+            return null;
+        }
+
+        return --discovery.depth == 0 ? discovery : null;
+    }
+
+    public static void onConnection(boolean established) {
+        RemoteEJBDiscovery discovery = CURRENT.get();
+        if (discovery == null || discovery.depth == 0) {
+            return;
+        }
+
+        discovery.connectionCount++;
+        if (!established) {
+            discovery.newConnectionCount++;
+        }
+    }
+
+    public long getStartNanoTime() {
+        return startNanoTime;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    public boolean isCacheHit() {
+        return newConnectionCount == 0;
+    }
+}
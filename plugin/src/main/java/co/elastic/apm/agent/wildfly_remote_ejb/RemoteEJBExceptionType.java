@@ -0,0 +1,126 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Span;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class RemoteEJBExceptionType {
+
+    private static final long RATE_LIMIT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final ClassValue<RemoteEJBExceptionType> EXCEPTIONS = new ClassValue<RemoteEJBExceptionType>() {
+        @Override
+        protected RemoteEJBExceptionType computeValue(Class<?> exceptionClass) {
+            return new RemoteEJBExceptionType(exceptionClass, isApplicationException(exceptionClass, RemoteEJBConfiguration.getExpectedExceptions()));
+        }
+    };
+
+    private final String className;
+    private final boolean applicationException;
+    private final AtomicLong windowStartNanoTime = new AtomicLong(System.nanoTime());
+    private final AtomicInteger windowCaptureCount = new AtomicInteger();
+
+    private RemoteEJBExceptionType(Class<?> exceptionClass, boolean applicationException) {
+        this.className = exceptionClass.getName();
+        this.applicationException = applicationException;
+    }
+
+    public static RemoteEJBExceptionType of(Throwable t) {
+        return EXCEPTIONS.get(t.getClass());
+    }
+
+    public static void report(Span span, Throwable t, boolean applicationException) {
+        RemoteEJBExceptionType exceptionType = of(t);
+        if (applicationException || exceptionType.isApplicationException()) {
+            span.setLabel("ejb_application_exception", exceptionType.className);
+            span.setOutcome(Outcome.UNKNOWN);
+            return;
+        }
+
+        if (exceptionType.tryCapture(RemoteEJBConfiguration.getExceptionCaptureRateLimit(), System.nanoTime())) {
+            span.captureException(t);
+        } else {
+            span.setLabel("ejb_exception", exceptionType.className);
+        }
+        span.setOutcome(Outcome.FAILURE);
+    }
+
+    public boolean isApplicationException() {
+        return applicationException;
+    }
+
+    boolean tryCapture(int rateLimit, long nanoTime) {
+        if (rateLimit <= 0) {
+            return true;
+        }
+
+        long windowStart = windowStartNanoTime.get();
+        if (nanoTime - windowStart >= RATE_LIMIT_WINDOW_NANOS && windowStartNanoTime.compareAndSet(windowStart, nanoTime)) {
+            windowCaptureCount.set(0);
+        }
+
+        return windowCaptureCount.incrementAndGet() <= rateLimit;
+    }
+
+    static boolean isApplicationException(Class<?> exceptionClass, Collection<String> expectedExceptions) {
+        boolean checked = !RuntimeException.class.isAssignableFrom(exceptionClass) && !Error.class.isAssignableFrom(exceptionClass);
+
+        for (Class<?> type = exceptionClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            if (expectedExceptions.contains(type.getName())) {
+                return true;
+            }
+
+            if (checked && type.getName().equals("java.rmi.RemoteException")) {
+                return false;
+            }
+
+            Boolean annotated = getApplicationExceptionAnnotation(type, type == exceptionClass);
+            if (annotated != null) {
+                return annotated || checked;
+            }
+        }
+
+        return checked;
+    }
+
+    private static Boolean getApplicationExceptionAnnotation(Class<?> type, boolean declared) {
+        for (Annotation annotation : type.getDeclaredAnnotations()) {
+            String annotationName = annotation.annotationType().getName();
+            if (!annotationName.equals("jakarta.ejb.ApplicationException") && !annotationName.equals("javax.ejb.ApplicationException")) {
+                continue;
+            }
+
+            if (declared) {
+                return Boolean.TRUE;
+            }
+
+            try {
+                return (Boolean) annotation.annotationType().getMethod("inherited").invoke(annotation);
+            } catch (ReflectiveOperationException e) {
+                return Boolean.TRUE;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@GlobalState
+public final class RemoteEJBInterceptorBreakdown {
+
+    public static final int MAX_ENTRIES = 64;
+
+    private static final ThreadLocal<RemoteEJBInterceptorBreakdown> CURRENT = new ThreadLocal<>();
+
+    private static final ClassValue<String> NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> interceptorClass) {
+            String name = interceptorClass.getName();
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    };
+
+    private static final ClassValue<ConcurrentMap<String, String>> METHOD_NAMES = new ClassValue<ConcurrentMap<String, String>>() {
+        @Override
+        protected ConcurrentMap<String, String> computeValue(Class<?> declaringClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final String[] names = new String[MAX_ENTRIES];
+    private final int[] depths = new int[MAX_ENTRIES];
+    private final long[] startNanoTimes = new long[MAX_ENTRIES];
+    private final long[] durationNanos = new long[MAX_ENTRIES];
+    private final long[] selfNanos = new long[MAX_ENTRIES];
+    private final long[] childNanos = new long[MAX_ENTRIES];
+
+    private boolean active;
+    private int size;
+    private int depth;
+
+    public static void start() {
+        RemoteEJBInterceptorBreakdown breakdown = CURRENT.get();
+        if (breakdown == null) {
+            breakdown = new RemoteEJBInterceptorBreakdown();
+            CURRENT.set(breakdown);
+        }
+
+        breakdown.active = true;
+        breakdown.size = 0;
+        breakdown.depth = 0;
+    }
+
+    public static RemoteEJBInterceptorBreakdown stop() {
+        RemoteEJBInterceptorBreakdown breakdown = CURRENT.get();
+        if (breakdown == null || !breakdown.active) {
+            return null;
+        }
+
+        breakdown.active = false;
+        return breakdown;
+    }
+
+    public static int enter(Class<?> interceptorClass) {
+        RemoteEJBInterceptorBreakdown breakdown = current();
+        if (breakdown == null) {
+            return -1;
+        }
+
+        return breakdown.enter(NAMES.get(interceptorClass));
+    }
+
+    public static int enter(Method method) {
+        RemoteEJBInterceptorBreakdown breakdown = current();
+        if (breakdown == null) {
+            return -1;
+        }
+
+        return breakdown.enter(getName(method));
+    }
+
+    static String getName(Method method) {
+        ConcurrentMap<String, String> names = METHOD_NAMES.get(method.getDeclaringClass());
+        String name = names.get(method.getName());
+        if (name == null) {
+            name = NAMES.get(method.getDeclaringClass()) + "#" + method.getName();
+            names.put(method.getName(), name);
+        }
+
+        return name;
+    }
+
+    private static RemoteEJBInterceptorBreakdown current() {
+        RemoteEJBInterceptorBreakdown breakdown = CURRENT.get();
+        if (breakdown == null || !breakdown.active || breakdown.size == MAX_ENTRIES) {
+            return null;
+        }
+
+        return breakdown;
+    }
+
+    private int enter(String name) {
+        int index = size++;
+        int depth = this.depth++;
+
+        names[index] = name;
+        depths[index] = depth;
+        childNanos[depth] = 0;
+        startNanoTimes[index] = System.nanoTime();
+
+        return index;
+    }
+
+    public static void exit(int index) {
+        if (index < 0) {
+            return;
+        }
+
+        RemoteEJBInterceptorBreakdown breakdown = CURRENT.get();
+        if (breakdown == null || !breakdown.active) {
+            return;
+        }
+
+        long duration = System.nanoTime() - breakdown.startNanoTimes[index];
+        int depth = --breakdown.depth;
+
+        breakdown.durationNanos[index] = duration;
+        breakdown.selfNanos[index] = duration - breakdown.childNanos[depth];
+        if (depth > 0) {
+            breakdown.childNanos[depth - 1] += duration;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public int getDepth(int index) {
+        return depths[index];
+    }
+
+    public long getStartNanoTime(int index) {
+        return startNanoTimes[index];
+    }
+
+    public long getDurationNanos(int index) {
+        return durationNanos[index];
+    }
+
+    public long getSelfNanos(int index) {
+        return selfNanos[index];
+    }
+}
@@ -0,0 +1,70 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Span;
+
+import java.util.Arrays;
+
+public final class RemoteEJBInterceptorBreakdownReporter {
+
+    private RemoteEJBInterceptorBreakdownReporter() {
+    }
+
+    public static void report(Span transaction, RemoteEJBInterceptorBreakdown breakdown) {
+        long minDurationNanos = RemoteEJBConfiguration.getInterceptorSpanMinDurationNanos();
+
+        Span[] spans = new Span[breakdown.size()];
+        Span[] ancestors = new Span[RemoteEJBInterceptorBreakdown.MAX_ENTRIES];
+        int otherCount = 0;
+        long otherNanos = 0;
+
+        for (int i = 0; i < breakdown.size(); i++) {
+            int depth = breakdown.getDepth(i);
+
+            Span parent = transaction;
+            for (int j = depth - 1; j >= 0; j--) {
+                if (ancestors[j] != null) {
+                    parent = ancestors[j];
+                    break;
+                }
+            }
+
+            if (breakdown.getSelfNanos(i) >= minDurationNanos) {
+                spans[i] = parent.startSpan("app", "ejb", "interceptor")
+                        .setName(breakdown.getName(i))
+                        .setStartTimestamp(RemoteEJBClock.toEpochMicros(breakdown.getStartNanoTime(i)))
+                        .setLabel("ejb_self_ms", RemoteEJBClock.toMillis(breakdown.getSelfNanos(i)));
+            } else {
+                otherCount++;
+                otherNanos += breakdown.getSelfNanos(i);
+            }
+
+            ancestors[depth] = spans[i];
+            Arrays.fill(ancestors, depth + 1, ancestors.length, null);
+        }
+
+        for (int i = spans.length - 1; i >= 0; i--) {
+            if (spans[i] != null) {
+                spans[i].end(RemoteEJBClock.toEpochMicros(breakdown.getStartNanoTime(i) + breakdown.getDurationNanos(i)));
+            }
+        }
+
+        transaction.setLabel("ejb_interceptor_count", breakdown.size());
+        transaction.setLabel("ejb_interceptor_other_count", otherCount);
+        transaction.setLabel("ejb_interceptor_other_ms", RemoteEJBClock.toMillis(otherNanos));
+    }
+}
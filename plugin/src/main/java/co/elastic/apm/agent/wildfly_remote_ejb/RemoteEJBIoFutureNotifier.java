@@ -0,0 +1,49 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Outcome;
+import org.xnio.IoFuture;
+
+public final class RemoteEJBIoFutureNotifier implements IoFuture.Notifier<Object, RemoteEJBPendingSpan> {
+
+    public static final RemoteEJBIoFutureNotifier CONNECTION = new RemoteEJBIoFutureNotifier(true);
+    public static final RemoteEJBIoFutureNotifier CHANNEL = new RemoteEJBIoFutureNotifier(false);
+
+    private final boolean connection;
+
+    private RemoteEJBIoFutureNotifier(boolean connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public void notify(IoFuture<?> ioFuture, RemoteEJBPendingSpan span) {
+        IoFuture.Status status = ioFuture.getStatus();
+        if (connection && status != IoFuture.Status.DONE) {
+            RemoteEJBConnections.get().onConnectionFailed();
+        }
+
+        if (span == null) {
+            return;
+        }
+
+        if (status == IoFuture.Status.DONE) {
+            span.end(Outcome.SUCCESS, null);
+        } else {
+            span.end(Outcome.FAILURE, status == IoFuture.Status.FAILED ? ioFuture.getException() : null);
+        }
+    }
+}
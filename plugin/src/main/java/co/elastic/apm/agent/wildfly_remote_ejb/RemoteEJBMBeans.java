@@ -0,0 +1,38 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.logging.Logger;
+import co.elastic.apm.agent.sdk.logging.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+public final class RemoteEJBMBeans {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteEJBMBeans.class);
+
+    private RemoteEJBMBeans() {
+    }
+
+    public static void register(Object mbean, String type, String side) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, new ObjectName("co.elastic.apm.wildfly_remote_ejb:type=" + type + ",side=" + side));
+        } catch (Exception e) {
+            logger.warn("Failed to register MBean {} for side {}", type, side, e);
+        }
+    }
+}
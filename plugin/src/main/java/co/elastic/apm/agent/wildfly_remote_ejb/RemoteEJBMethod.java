@@ -0,0 +1,151 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class RemoteEJBMethod {
+
+    private static final ClassValue<ConcurrentMap<Method, RemoteEJBMethod>> METHODS = new ClassValue<ConcurrentMap<Method, RemoteEJBMethod>>() {
+        @Override
+        protected ConcurrentMap<Method, RemoteEJBMethod> computeValue(Class<?> viewClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<?> viewClass;
+    private final String name;
+    private final String spanName;
+    private final boolean ignored;
+
+    private LatencyHistogram clientLatencyHistogram;
+    private LatencyHistogram serverLatencyHistogram;
+    private PayloadSize clientPayloadSize;
+    private PayloadSize serverPayloadSize;
+    private RateGuard clientRateGuard;
+    private RateGuard serverRateGuard;
+
+    private RemoteEJBMethod(Class<?> viewClass, Method method) {
+        this.viewClass = viewClass;
+        this.name = viewClass.getSimpleName() + "#" + method.getName();
+        this.spanName = "Call " + name;
+        this.ignored = RemoteEJBMethodFilter.get().isIgnored(viewClass, method.getName());
+    }
+
+    public static RemoteEJBMethod of(Class<?> viewClass, Method method) {
+        ConcurrentMap<Method, RemoteEJBMethod> methods = METHODS.get(viewClass);
+
+        RemoteEJBMethod remoteEJBMethod = methods.get(method);
+        if (remoteEJBMethod == null) {
+            remoteEJBMethod = new RemoteEJBMethod(viewClass, method);
+
+            RemoteEJBMethod existingRemoteEJBMethod = methods.putIfAbsent(method, remoteEJBMethod);
+            if (existingRemoteEJBMethod != null) {
+                remoteEJBMethod = existingRemoteEJBMethod;
+            }
+        }
+
+        return remoteEJBMethod;
+    }
+
+    public Class<?> getViewClass() {
+        return viewClass;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSpanName() {
+        return spanName;
+    }
+
+    public boolean isIgnored() {
+        return ignored;
+    }
+
+    public LatencyHistogram getClientLatencyHistogram() {
+        LatencyHistogram latencyHistogram = clientLatencyHistogram;
+        if (latencyHistogram == null) {
+            latencyHistogram = LatencyHistograms.client().get(name);
+            clientLatencyHistogram = latencyHistogram;
+        }
+
+        return latencyHistogram;
+    }
+
+    public LatencyHistogram getServerLatencyHistogram() {
+        LatencyHistogram latencyHistogram = serverLatencyHistogram;
+        if (latencyHistogram == null) {
+            latencyHistogram = LatencyHistograms.server().get(name);
+            serverLatencyHistogram = latencyHistogram;
+        }
+
+        return latencyHistogram;
+    }
+
+    public boolean tryAcquireClientSpan() {
+        int rateLimit = RemoteEJBConfiguration.getSpanRateLimit();
+        if (rateLimit <= 0) {
+            return true;
+        }
+
+        RateGuard rateGuard = clientRateGuard;
+        if (rateGuard == null) {
+            rateGuard = RateGuards.client().get(name);
+            clientRateGuard = rateGuard;
+        }
+
+        return rateGuard.tryAcquire(rateLimit, RemoteEJBConfiguration.getSpanRateBudget(), System.nanoTime());
+    }
+
+    public boolean tryAcquireServerSpan() {
+        int rateLimit = RemoteEJBConfiguration.getSpanRateLimit();
+        if (rateLimit <= 0) {
+            return true;
+        }
+
+        RateGuard rateGuard = serverRateGuard;
+        if (rateGuard == null) {
+            rateGuard = RateGuards.server().get(name);
+            serverRateGuard = rateGuard;
+        }
+
+        return rateGuard.tryAcquire(rateLimit, RemoteEJBConfiguration.getSpanRateBudget(), System.nanoTime());
+    }
+
+    public PayloadSize getClientPayloadSize() {
+        PayloadSize payloadSize = clientPayloadSize;
+        if (payloadSize == null) {
+            payloadSize = PayloadSizes.client().get(name);
+            clientPayloadSize = payloadSize;
+        }
+
+        return payloadSize;
+    }
+
+    public PayloadSize getServerPayloadSize() {
+        PayloadSize payloadSize = serverPayloadSize;
+        if (payloadSize == null) {
+            payloadSize = PayloadSizes.server().get(name);
+            serverPayloadSize = payloadSize;
+        }
+
+        return payloadSize;
+    }
+}
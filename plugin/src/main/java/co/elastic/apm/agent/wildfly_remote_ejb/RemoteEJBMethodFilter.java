@@ -0,0 +1,78 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+public final class RemoteEJBMethodFilter {
+
+    private static final RemoteEJBMethodFilter FILTER = new RemoteEJBMethodFilter(compile(RemoteEJBConfiguration.getIgnoreMethods()), compile(RemoteEJBConfiguration.getIncludeMethods()));
+
+    private final Pattern ignorePattern;
+    private final Pattern includePattern;
+
+    RemoteEJBMethodFilter(Pattern ignorePattern, Pattern includePattern) {
+        this.ignorePattern = ignorePattern;
+        this.includePattern = includePattern;
+    }
+
+    public static RemoteEJBMethodFilter get() {
+        return FILTER;
+    }
+
+    public boolean isIgnored(Class<?> viewClass, String methodName) {
+        if (ignorePattern == null && includePattern == null) {
+            return false;
+        }
+
+        String name = viewClass.getSimpleName() + "#" + methodName;
+        String qualifiedName = viewClass.getName() + "#" + methodName;
+
+        if (includePattern != null && !includePattern.matcher(name).matches() && !includePattern.matcher(qualifiedName).matches()) {
+            return true;
+        }
+
+        return ignorePattern != null && (ignorePattern.matcher(name).matches() || ignorePattern.matcher(qualifiedName).matches());
+    }
+
+    static Pattern compile(Collection<String> wildcards) {
+        if (wildcards.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder regex = new StringBuilder();
+        for (String wildcard : wildcards) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+
+            int start = 0;
+            for (int i = wildcard.indexOf('*'); i >= 0; i = wildcard.indexOf('*', start)) {
+                if (i > start) {
+                    regex.append(Pattern.quote(wildcard.substring(start, i)));
+                }
+                regex.append(".*");
+                start = i + 1;
+            }
+            if (start < wildcard.length()) {
+                regex.append(Pattern.quote(wildcard.substring(start)));
+            }
+        }
+
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+@GlobalState
+public final class RemoteEJBPayload {
+
+    private static final ThreadLocal<RemoteEJBPayload> CURRENT = new ThreadLocal<>();
+
+    private int depth;
+    private long bytes;
+
+    private RemoteEJBPayload() {
+    }
+
+    public static void start() {
+        RemoteEJBPayload payload = CURRENT.get();
+        if (payload == null) {
+            payload = new RemoteEJBPayload();
+            CURRENT.set(payload);
+        }
+
+        if (payload.depth++ == 0) {
+            payload.bytes = 0;
+        }
+    }
+
+    public static long stop() {
+        RemoteEJBPayload payload = CURRENT.get();
+        if (payload == null || payload.depth == 0) {
+            return -1;
+        }
+
+        if (--payload.depth > 0) {
+            return -1;
+        }
+
+        return payload.bytes > 0 ? payload.bytes : -1;
+    }
+
+    public static void count(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+
+        RemoteEJBPayload payload = CURRENT.get();
+        if (payload == null || payload.depth == 0) {
+            return;
+        }
+
+        payload.bytes += bytes;
+    }
+}
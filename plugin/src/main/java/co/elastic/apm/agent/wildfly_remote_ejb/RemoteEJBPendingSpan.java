@@ -0,0 +1,45 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Span;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@GlobalState
+public final class RemoteEJBPendingSpan {
+
+    private final Span span;
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    public RemoteEJBPendingSpan(Span span) {
+        this.span = span;
+    }
+
+    public void end(Outcome outcome, Throwable t) {
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (t != null) {
+            span.captureException(t);
+        }
+        span.setOutcome(outcome);
+        span.end();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@GlobalState
+public final class RemoteEJBRequestQueue implements RemoteEJBRequestQueueMBean {
+
+    private static final RemoteEJBRequestQueue INSTANCE = new RemoteEJBRequestQueue();
+
+    private final LongAdder receivedCount = new LongAdder();
+    private final LongAdder startedCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    private volatile long resetStartedCount;
+    private volatile int poolQueueSize = -1;
+    private volatile int poolActiveCount = -1;
+
+    private RemoteEJBRequestQueue() {
+    }
+
+    public static RemoteEJBRequestQueue get() {
+        return INSTANCE;
+    }
+
+    public void onReceived(int poolQueueSize, int poolActiveCount) {
+        receivedCount.increment();
+        this.poolQueueSize = poolQueueSize;
+        this.poolActiveCount = poolActiveCount;
+
+        register();
+    }
+
+    public void onStarted(long waitNanos) {
+        startedCount.increment();
+        this.waitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+    }
+
+    @Override
+    public long getQueuedCount() {
+        return Math.max(0, receivedCount.sum() - startedCount.sum());
+    }
+
+    @Override
+    public long getStartedCount() {
+        return startedCount.sum();
+    }
+
+    @Override
+    public double getMeanWaitMillis() {
+        long count = startedCount.sum() - resetStartedCount;
+        return count > 0 ? waitNanos.sum() / 1_000_000d / count : 0;
+    }
+
+    @Override
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000d;
+    }
+
+    @Override
+    public int getPoolQueueSize() {
+        return poolQueueSize;
+    }
+
+    @Override
+    public int getPoolActiveCount() {
+        return poolActiveCount;
+    }
+
+    @Override
+    public void reset() {
+        resetStartedCount = startedCount.sum();
+        waitNanos.reset();
+        maxWaitNanos.reset();
+    }
+
+    private void register() {
+        if (registered.get() || !registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        RemoteEJBMBeans.register(this, "RequestQueue", "server");
+    }
+}
@@ -17,10 +17,12 @@ package co.elastic.apm.agent.wildfly_remote_ejb;
 
 import co.elastic.apm.api.ElasticApm;
 import co.elastic.apm.api.Outcome;
-import co.elastic.apm.api.Scope;
+import co.elastic.apm.api.Span;
 import co.elastic.apm.api.Transaction;
 import net.bytebuddy.asm.Advice;
+import org.jboss.as.ee.component.Component;
 import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.ejb.server.InvocationRequest;
 
 import java.lang.reflect.Method;
@@ -28,29 +30,116 @@ import java.lang.reflect.Method;
 public class RemoteEJBServerAdvice {
 
     @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
-    public static Object onEnterInvokeMethod(@Advice.Argument(0) ComponentView componentView, @Advice.Argument(1) Method method, @Advice.Argument(3) InvocationRequest.Resolved invocationRequest) {
-        Transaction transaction = ElasticApm.startTransactionWithRemoteParent(new MapTextHeaderAccessor(invocationRequest.getAttachments()))
+    public static Object onEnterInvokeMethod(@Advice.Argument(0) ComponentView componentView, @Advice.Argument(1) Method method, @Advice.Argument(2) InvocationRequest incomingInvocation, @Advice.Argument(3) InvocationRequest.Resolved invocationRequest) {
+        RemoteEJBMethod remoteEJBMethod = RemoteEJBMethod.of(componentView.getViewClass(), method);
+        RemoteEJBServerQueueWait queueWait = RemoteEJBServerQueueWait.take(incomingInvocation);
+        if (remoteEJBMethod.isIgnored()) {
+            RemoteEJBServerPhases.takeUnmarshalNanos();
+            RemoteEJBServerPhases.takeRequestBytes();
+            return null;
+        }
+
+        long unmarshalNanos = RemoteEJBServerPhases.takeUnmarshalNanos();
+        long requestBytes = RemoteEJBServerPhases.takeRequestBytes();
+        if (RemoteEJBConfiguration.isPayloadSizes() && requestBytes >= 0) {
+            remoteEJBMethod.getServerPayloadSize().recordRequest(requestBytes);
+        }
+
+        if (!remoteEJBMethod.tryAcquireServerSpan()) {
+            return RemoteEJBCall.enterServer(remoteEJBMethod);
+        }
+
+        Transaction transaction = ElasticApm.startTransactionWithRemoteParent(new BinaryTraceContextHeaderExtractor(invocationRequest.getAttachments()))
                 .useServiceInfoForClassLoader(componentView.getViewClass().getClassLoader())
                 .setType(Transaction.TYPE_REQUEST)
-                .setName(componentView.getViewClass().getSimpleName() + "#" + method.getName())
+                .setName(remoteEJBMethod.getName())
                 .setFrameworkName("EJB");
 
-        return transaction.activate();
+        if (queueWait != null) {
+            queueWait.report(transaction);
+        }
+
+        if (incomingInvocation != null && transaction.isSampled()) {
+            transaction.setLabel("ejb_transport", incomingInvocation.getProtocol());
+        }
+
+        if (RemoteEJBConfiguration.isPhaseBreakdown() && unmarshalNanos >= 0 && transaction.isSampled()) {
+            transaction.setLabel("ejb_unmarshal_ms", RemoteEJBClock.toMillis(unmarshalNanos));
+        }
+
+        if (RemoteEJBConfiguration.isPayloadSizes() && requestBytes >= 0 && transaction.isSampled()) {
+            transaction.setLabel("ejb_request_bytes", requestBytes);
+        }
+
+        RemoteEJBCall call = RemoteEJBCall.enterServer(remoteEJBMethod);
+        call.activate(transaction);
+        RemoteEJBCallBudgetReporter.startTransaction(transaction);
+
+        if (RemoteEJBConfiguration.isInterceptorBreakdown() && transaction.isSampled()) {
+            RemoteEJBInterceptorBreakdown.start();
+        }
+
+        return call;
     }
 
     @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
-    public static void onExitInvokeMethod(@Advice.Enter Object scope, @Advice.Thrown Throwable t) {
+    public static void onExitInvokeMethod(@Advice.Argument(0) ComponentView componentView, @Advice.Argument(1) Method method, @Advice.Argument(2) InvocationRequest incomingInvocation, @Advice.Argument(3) InvocationRequest.Resolved invocationRequest, @Advice.Enter Object callOrNull, @Advice.Thrown Throwable t) {
+        if (callOrNull == null) {
+            return;
+        }
+
+        RemoteEJBCall call = (RemoteEJBCall) callOrNull;
         try {
-            Transaction transaction = ElasticApm.currentTransaction();
+            long nanos = System.nanoTime() - call.getStartNanoTime();
+            if (RemoteEJBConfiguration.isLatencyHistograms()) {
+                call.getMethod().getServerLatencyHistogram().record(nanos / 1000);
+            }
+
+            String callerName = null;
+            String callerAddress = null;
+            if (RemoteEJBConfiguration.isCallerAttribution()) {
+                callerName = RemoteEJBCaller.getName(invocationRequest.getAttachments());
+                callerAddress = incomingInvocation != null ? RemoteEJBCaller.getAddress(incomingInvocation) : null;
+                RemoteEJBCallers.get().record(callerName != null ? callerName : callerAddress != null ? callerAddress : RemoteEJBCaller.UNKNOWN, call.getMethod().getName(), nanos, RemoteEJBConfiguration.getCallerTableSize());
+            }
+
+            Span transaction = call.getSpan();
+            boolean deferEnd = t == null && transaction != null && transaction.isSampled() && (RemoteEJBConfiguration.isPhaseBreakdown() || RemoteEJBConfiguration.isPayloadSizes());
+            if (deferEnd || t == null && RemoteEJBConfiguration.isPayloadSizes()) {
+                RemoteEJBServerPhases.deferEnd(new RemoteEJBServerTransactionEnd(deferEnd ? transaction : null, call.getMethod(), RemoteEJBClock.epochMicros()));
+            }
+
+            if (transaction == null) {
+                return;
+            }
+
+            RemoteEJBCallBudgetReporter.endTransaction(transaction);
+
+            if (callerName != null) {
+                transaction.setLabel("ejb_caller_service", callerName);
+            }
+            if (callerAddress != null) {
+                transaction.setLabel("ejb_caller_address", callerAddress);
+            }
+
+            RemoteEJBInterceptorBreakdown interceptorBreakdown = RemoteEJBInterceptorBreakdown.stop();
+            if (interceptorBreakdown != null) {
+                RemoteEJBInterceptorBreakdownReporter.report(transaction, interceptorBreakdown);
+            }
+
             if (t != null) {
-                transaction.captureException(t);
-                transaction.setOutcome(Outcome.FAILURE);
+                Component component = componentView.getComponent();
+                boolean applicationException = component instanceof EJBComponent && ((EJBComponent) component).getApplicationException(t.getClass(), method) != null;
+                RemoteEJBExceptionType.report(transaction, t, applicationException);
             } else {
                 transaction.setOutcome(Outcome.SUCCESS);
             }
-            transaction.end();
+
+            if (!deferEnd) {
+                transaction.end();
+            }
         } finally {
-            ((Scope) scope).close();
+            call.exit();
         }
     }
 }
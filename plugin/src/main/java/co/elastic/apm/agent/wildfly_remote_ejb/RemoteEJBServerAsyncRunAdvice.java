@@ -0,0 +1,41 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import net.bytebuddy.asm.Advice;
+
+public class RemoteEJBServerAsyncRunAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static Object onEnterRun(@Advice.This Object task) {
+        RemoteEJBServerAsyncTask asyncTask = RemoteEJBServerAsyncTask.started(task);
+        if (asyncTask == null) {
+            return null;
+        }
+
+        asyncTask.start();
+        return asyncTask;
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitRun(@Advice.This Object task, @Advice.Enter Object asyncTaskOrNull, @Advice.Thrown Throwable t) {
+        if (asyncTaskOrNull == null) {
+            return;
+        }
+
+        ((RemoteEJBServerAsyncTask) asyncTaskOrNull).end(task, t);
+    }
+}
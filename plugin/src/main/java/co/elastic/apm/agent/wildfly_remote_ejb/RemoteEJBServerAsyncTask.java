@@ -0,0 +1,112 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakConcurrent;
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakMap;
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Scope;
+import co.elastic.apm.api.Span;
+import co.elastic.apm.api.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class RemoteEJBServerAsyncTask {
+
+    private static final WeakMap<Object, RemoteEJBServerAsyncTask> TASKS = WeakConcurrent.buildMap();
+
+    private final RemoteEJBMethod method;
+    private final Map<String, Object> traceHeaders;
+    private final long submittedEpochMicros;
+
+    private Transaction transaction;
+    private Span span;
+    private Scope scope;
+    private Throwable failure;
+
+    private RemoteEJBServerAsyncTask(RemoteEJBMethod method, Map<String, Object> traceHeaders, long submittedEpochMicros) {
+        this.method = method;
+        this.traceHeaders = traceHeaders;
+        this.submittedEpochMicros = submittedEpochMicros;
+    }
+
+    public static void submitted(Object task, RemoteEJBMethod method, Span parent) {
+        Map<String, Object> traceHeaders = new HashMap<>();
+        parent.injectTraceHeaders(new MapTextHeaderAccessor(traceHeaders));
+
+        TASKS.put(task, new RemoteEJBServerAsyncTask(method, traceHeaders, RemoteEJBClock.epochMicros()));
+    }
+
+    public static RemoteEJBServerAsyncTask started(Object task) {
+        return TASKS.get(task);
+    }
+
+    public static void failed(Object task, Throwable t) {
+        RemoteEJBServerAsyncTask asyncTask = TASKS.get(task);
+        if (asyncTask != null) {
+            asyncTask.failure = t;
+        }
+    }
+
+    public void start() {
+        long startedEpochMicros = RemoteEJBClock.epochMicros();
+
+        transaction = ElasticApm.startTransactionWithRemoteParent(new MapTextHeaderAccessor(traceHeaders))
+                .useServiceInfoForClassLoader(method.getViewClass().getClassLoader())
+                .setType(Transaction.TYPE_REQUEST)
+                .setName("Async " + method.getName())
+                .setFrameworkName("EJB")
+                .setStartTimestamp(submittedEpochMicros);
+
+        if (transaction.isSampled()) {
+            transaction.startSpan("app", "ejb", "queue")
+                    .setName("Async queue wait")
+                    .setStartTimestamp(submittedEpochMicros)
+                    .end(startedEpochMicros);
+        }
+
+        span = transaction.startSpan("app", "ejb", "async")
+                .setName("Async execution")
+                .setStartTimestamp(startedEpochMicros);
+        scope = span.activate();
+        RemoteEJBCallBudgetReporter.startTransaction(transaction);
+    }
+
+    public void end(Object task, Throwable t) {
+        TASKS.remove(task);
+        if (t == null) {
+            t = failure;
+        }
+
+        try {
+            RemoteEJBCallBudgetReporter.endTransaction(transaction);
+            if (t != null) {
+                span.captureException(t);
+                span.setOutcome(Outcome.FAILURE);
+                transaction.setOutcome(Outcome.FAILURE);
+            } else {
+                span.setOutcome(Outcome.SUCCESS);
+                transaction.setOutcome(Outcome.SUCCESS);
+            }
+            span.end();
+            transaction.end();
+        } finally {
+            scope.close();
+        }
+    }
+}
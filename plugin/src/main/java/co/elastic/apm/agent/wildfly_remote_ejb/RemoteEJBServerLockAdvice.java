@@ -0,0 +1,60 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Span;
+import net.bytebuddy.asm.Advice;
+
+public class RemoteEJBServerLockAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static long onEnterTryLock() {
+        return System.nanoTime();
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitTryLock(@Advice.Origin("#t") String lockType, @Advice.Enter long startNanoTime, @Advice.Return boolean acquired, @Advice.Thrown Throwable t) {
+        long waitNanos = System.nanoTime() - startNanoTime;
+        boolean timeout = t == null && !acquired;
+        if (t == null && !timeout && waitNanos < RemoteEJBConfiguration.getLockWaitThresholdNanos()) {
+            return;
+        }
+
+        RemoteEJBCall call = RemoteEJBCall.currentServer();
+        Span transaction = call != null ? call.getSpan() : null;
+        if (transaction == null || !transaction.isSampled()) {
+            return;
+        }
+
+        transaction.setLabel("ejb_lock_wait_ms", RemoteEJBClock.toMillis(RemoteEJBTransactionTotals.add(transaction.getId(), "ejb_lock_wait_ms", waitNanos)));
+        if (timeout) {
+            transaction.setLabel("ejb_lock_timeout", true);
+        }
+
+        Span span = ElasticApm.currentSpan().startSpan("app", "ejb", "lock")
+                .setName(lockType.endsWith("WriteLock") ? "Lock wait WRITE" : "Lock wait READ")
+                .setStartTimestamp(RemoteEJBClock.toEpochMicros(startNanoTime));
+        if (t != null) {
+            span.captureException(t);
+            span.setOutcome(Outcome.FAILURE);
+        } else {
+            span.setOutcome(acquired ? Outcome.SUCCESS : Outcome.FAILURE);
+        }
+        span.end();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+import java.util.function.LongConsumer;
+
+@GlobalState
+public final class RemoteEJBServerPhases {
+
+    private static final ThreadLocal<RemoteEJBServerPhases> CURRENT = new ThreadLocal<>();
+
+    private long unmarshalNanos = -1;
+    private long requestBytes = -1;
+    private LongConsumer pendingEnd;
+    private long marshalStartNanoTime;
+    private long responseBytes = -1;
+
+    private RemoteEJBServerPhases() {
+    }
+
+    private static RemoteEJBServerPhases get() {
+        RemoteEJBServerPhases phases = CURRENT.get();
+        if (phases == null) {
+            phases = new RemoteEJBServerPhases();
+            CURRENT.set(phases);
+        }
+
+        return phases;
+    }
+
+    public static void onUnmarshalled(long nanos, long requestBytes) {
+        RemoteEJBServerPhases phases = get();
+        phases.unmarshalNanos = nanos;
+        phases.requestBytes = requestBytes;
+    }
+
+    public static long takeUnmarshalNanos() {
+        RemoteEJBServerPhases phases = CURRENT.get();
+        if (phases == null) {
+            return -1;
+        }
+
+        long nanos = phases.unmarshalNanos;
+        phases.unmarshalNanos = -1;
+        return nanos;
+    }
+
+    public static long takeRequestBytes() {
+        RemoteEJBServerPhases phases = CURRENT.get();
+        if (phases == null) {
+            return -1;
+        }
+
+        long bytes = phases.requestBytes;
+        phases.requestBytes = -1;
+        return bytes;
+    }
+
+    public static long getResponseBytes() {
+        RemoteEJBServerPhases phases = CURRENT.get();
+        return phases != null ? phases.responseBytes : -1;
+    }
+
+    public static void deferEnd(LongConsumer end) {
+        RemoteEJBServerPhases phases = get();
+        phases.flush(-1, -1);
+        phases.pendingEnd = end;
+    }
+
+    public static void onMarshalStart() {
+        RemoteEJBServerPhases phases = CURRENT.get();
+        if (phases == null || phases.pendingEnd == null) {
+            return;
+        }
+
+        phases.marshalStartNanoTime = System.nanoTime();
+    }
+
+    public static void onMarshalEnd(long responseBytes) {
+        RemoteEJBServerPhases phases = CURRENT.get();
+        if (phases == null || phases.pendingEnd == null) {
+            return;
+        }
+
+        phases.flush(System.nanoTime() - phases.marshalStartNanoTime, responseBytes);
+    }
+
+    public static void flush() {
+        RemoteEJBServerPhases phases = CURRENT.get();
+        if (phases == null) {
+            return;
+        }
+
+        phases.flush(-1, -1);
+    }
+
+    private void flush(long marshalNanos, long responseBytes) {
+        LongConsumer end = pendingEnd;
+        if (end == null) {
+            return;
+        }
+
+        pendingEnd = null;
+        marshalStartNanoTime = 0;
+        this.responseBytes = responseBytes;
+        try {
+            end.accept(marshalNanos);
+        } finally {
+            this.responseBytes = -1;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakConcurrent;
+import co.elastic.apm.agent.sdk.weakconcurrent.WeakMap;
+import co.elastic.apm.api.Span;
+import co.elastic.apm.api.Transaction;
+import org.jboss.ejb.server.InvocationRequest;
+import org.jboss.threads.EnhancedQueueExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+public final class RemoteEJBServerQueueWait {
+
+    private static final WeakMap<InvocationRequest, RemoteEJBServerQueueWait> QUEUE_WAITS = WeakConcurrent.buildMap();
+
+    private final long receivedNanoTime;
+    private final int poolQueueSize;
+    private final int poolActiveCount;
+    private long waitNanos;
+
+    private RemoteEJBServerQueueWait(long receivedNanoTime, int poolQueueSize, int poolActiveCount) {
+        this.receivedNanoTime = receivedNanoTime;
+        this.poolQueueSize = poolQueueSize;
+        this.poolActiveCount = poolActiveCount;
+    }
+
+    public static void onReceived(InvocationRequest invocationRequest) {
+        int poolQueueSize = -1;
+        int poolActiveCount = -1;
+
+        Executor executor = invocationRequest.getRequestExecutor();
+        if (executor instanceof EnhancedQueueExecutor) {
+            poolQueueSize = ((EnhancedQueueExecutor) executor).getQueueSize();
+            poolActiveCount = ((EnhancedQueueExecutor) executor).getActiveCount();
+        } else if (executor instanceof ThreadPoolExecutor) {
+            poolQueueSize = ((ThreadPoolExecutor) executor).getQueue().size();
+            poolActiveCount = ((ThreadPoolExecutor) executor).getActiveCount();
+        }
+
+        QUEUE_WAITS.put(invocationRequest, new RemoteEJBServerQueueWait(System.nanoTime(), poolQueueSize, poolActiveCount));
+        RemoteEJBRequestQueue.get().onReceived(poolQueueSize, poolActiveCount);
+    }
+
+    public static RemoteEJBServerQueueWait take(InvocationRequest invocationRequest) {
+        if (invocationRequest == null) {
+            return null;
+        }
+
+        RemoteEJBServerQueueWait queueWait = QUEUE_WAITS.remove(invocationRequest);
+        if (queueWait == null) {
+            return null;
+        }
+
+        queueWait.waitNanos = System.nanoTime() - queueWait.receivedNanoTime;
+        RemoteEJBRequestQueue.get().onStarted(queueWait.waitNanos);
+
+        return queueWait;
+    }
+
+    public void report(Transaction transaction) {
+        if (waitNanos < RemoteEJBConfiguration.getQueueWaitThresholdNanos() || !transaction.isSampled()) {
+            return;
+        }
+
+        long receivedEpochMicros = RemoteEJBClock.toEpochMicros(receivedNanoTime);
+        transaction.setStartTimestamp(receivedEpochMicros);
+        transaction.setLabel("ejb_queue_wait_ms", RemoteEJBClock.toMillis(waitNanos));
+        if (poolQueueSize >= 0) {
+            transaction.setLabel("ejb_pool_queue_size", poolQueueSize);
+            transaction.setLabel("ejb_pool_active_count", poolActiveCount);
+        }
+
+        Span span = transaction.startSpan("app", "ejb", "queue")
+                .setName("Queue wait")
+                .setStartTimestamp(receivedEpochMicros);
+        span.end(RemoteEJBClock.toEpochMicros(receivedNanoTime + waitNanos));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import net.bytebuddy.asm.Advice;
+import org.jboss.ejb.server.InvocationRequest;
+import org.jboss.ejb.server.Request;
+
+public class RemoteEJBServerReceiveAdvice {
+
+    @Advice.AssignReturned.ToArguments(@Advice.AssignReturned.ToArguments.ToArgument(1))
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static Runnable onEnterExecute(@Advice.Argument(0) Request request, @Advice.Argument(1) Runnable task) {
+        if (!(request instanceof InvocationRequest)) {
+            return task;
+        }
+
+        RemoteEJBServerQueueWait.onReceived((InvocationRequest) request);
+
+        if (RemoteEJBConfiguration.isPhaseBreakdown() || RemoteEJBConfiguration.isPayloadSizes()) {
+            return new RemoteEJBServerTask(task);
+        }
+
+        return task;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Span;
+import co.elastic.apm.api.Transaction;
+import net.bytebuddy.asm.Advice;
+import org.jboss.as.ee.component.Component;
+
+public class RemoteEJBServerSessionAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static Object onEnterCreateSessionRemote(@Advice.This Component component) {
+        String name = "Create session " + component.getComponentName();
+
+        Span span;
+        Span parent = ElasticApm.currentSpan();
+        if (parent.getId().isEmpty()) {
+            span = ElasticApm.startTransaction()
+                    .useServiceInfoForClassLoader(component.getComponentClass().getClassLoader())
+                    .setType(Transaction.TYPE_REQUEST)
+                    .setName(name)
+                    .setFrameworkName("EJB");
+        } else if (parent.isSampled()) {
+            span = parent.startSpan("app", "ejb", "session").setName(name);
+        } else {
+            span = null;
+        }
+
+        return new RemoteEJBSession(name, System.nanoTime(), span, span != null ? span.activate() : null);
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitCreateSessionRemote(@Advice.Enter Object sessionOrNull, @Advice.Thrown Throwable t) {
+        if (sessionOrNull == null) {
+            return;
+        }
+
+        ((RemoteEJBSession) sessionOrNull).end(LatencyHistograms.serverSessions(), t);
+    }
+}
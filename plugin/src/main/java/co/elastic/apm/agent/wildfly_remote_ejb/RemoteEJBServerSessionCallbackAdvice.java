@@ -0,0 +1,37 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import net.bytebuddy.asm.Advice;
+import org.jboss.as.ee.component.ComponentInstance;
+
+public class RemoteEJBServerSessionCallbackAdvice {
+
+    @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
+    public static long onEnterCallback() {
+        return System.nanoTime();
+    }
+
+    @Advice.OnMethodExit(suppress = Throwable.class, onThrowable = Throwable.class, inline = false)
+    public static void onExitCallback(@Advice.Origin("#m") String methodName, @Advice.This ComponentInstance componentInstance, @Advice.Enter long startNanoTime, @Advice.Thrown Throwable t) {
+        String beanName = componentInstance.getComponent().getComponentName();
+        if ("prePassivate".equals(methodName)) {
+            RemoteEJBSessionLifecycle.report("PrePassivate " + beanName, "pre_passivate", startNanoTime, t);
+        } else if (!RemoteEJBSessionActivation.onActivated(beanName)) {
+            RemoteEJBSessionLifecycle.report("PostActivate " + beanName, "post_activate", startNanoTime, t);
+        }
+    }
+}
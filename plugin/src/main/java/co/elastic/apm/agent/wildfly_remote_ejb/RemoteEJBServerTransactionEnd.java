@@ -0,0 +1,58 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Span;
+
+import java.util.function.LongConsumer;
+
+public final class RemoteEJBServerTransactionEnd implements LongConsumer {
+
+    private final Span transaction;
+    private final RemoteEJBMethod method;
+    private final long endEpochMicros;
+
+    public RemoteEJBServerTransactionEnd(Span transaction, RemoteEJBMethod method, long endEpochMicros) {
+        this.transaction = transaction;
+        this.method = method;
+        this.endEpochMicros = endEpochMicros;
+    }
+
+    @Override
+    public void accept(long marshalNanos) {
+        long responseBytes = RemoteEJBServerPhases.getResponseBytes();
+        if (RemoteEJBConfiguration.isPayloadSizes() && responseBytes >= 0) {
+            method.getServerPayloadSize().recordResponse(responseBytes);
+            if (transaction != null) {
+                transaction.setLabel("ejb_response_bytes", responseBytes);
+            }
+        }
+
+        if (transaction == null) {
+            return;
+        }
+
+        if (marshalNanos < 0) {
+            transaction.end(endEpochMicros);
+            return;
+        }
+
+        if (RemoteEJBConfiguration.isPhaseBreakdown()) {
+            transaction.setLabel("ejb_marshal_ms", RemoteEJBClock.toMillis(marshalNanos));
+        }
+        transaction.end(endEpochMicros + marshalNanos / 1000);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Scope;
+import co.elastic.apm.api.Span;
+
+public class RemoteEJBSession {
+
+    private final String name;
+    private final long startNanoTime;
+    private final Span span;
+    private final Scope scope;
+
+    public RemoteEJBSession(String name, long startNanoTime, Span span, Scope scope) {
+        this.name = name;
+        this.startNanoTime = startNanoTime;
+        this.span = span;
+        this.scope = scope;
+    }
+
+    public Span getSpan() {
+        return span;
+    }
+
+    public void end(LatencyHistograms histograms, Throwable t) {
+        if (RemoteEJBConfiguration.isLatencyHistograms()) {
+            histograms.get(name).record((System.nanoTime() - startNanoTime) / 1000);
+        }
+
+        if (span == null) {
+            return;
+        }
+
+        try {
+            if (t != null) {
+                span.captureException(t);
+                span.setOutcome(Outcome.FAILURE);
+            } else {
+                span.setOutcome(Outcome.SUCCESS);
+            }
+            span.end();
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+}
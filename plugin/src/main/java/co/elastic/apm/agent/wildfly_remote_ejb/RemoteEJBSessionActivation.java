@@ -0,0 +1,73 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.agent.sdk.state.GlobalState;
+
+@GlobalState
+public final class RemoteEJBSessionActivation {
+
+    private static final ThreadLocal<RemoteEJBSessionActivation> CURRENT = new ThreadLocal<>();
+
+    private int depth;
+    private long startNanoTime;
+    private String beanName;
+
+    private RemoteEJBSessionActivation() {
+    }
+
+    public static void enter() {
+        RemoteEJBSessionActivation activation = CURRENT.get();
+        if (activation == null) {
+            activation = new RemoteEJBSessionActivation();
+            CURRENT.set(activation);
+        }
+
+        if (activation.depth++ > 0) {
+            return;
+        }
+
+        activation.startNanoTime = System.nanoTime();
+        activation.beanName = null;
+    }
+
+    public static RemoteEJBSessionActivation exit() {
+        RemoteEJBSessionActivation activation = CURRENT.get();
+        if (activation == null || activation.depth == 0) {
+            return null;
+        }
+
+        return --activation.depth == 0 && activation.beanName != null ? activation : null;
+    }
+
+    public static boolean onActivated(String beanName) {
+        RemoteEJBSessionActivation activation = CURRENT.get();
+        if (activation == null || activation.depth == 0) {
+            return false;
+        }
+
+        activation.beanName = beanName;
+        return true;
+    }
+
+    public long getStartNanoTime() {
+        return startNanoTime;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+}
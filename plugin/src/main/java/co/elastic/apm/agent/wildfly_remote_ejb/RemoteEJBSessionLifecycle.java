@@ -0,0 +1,57 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Outcome;
+import co.elastic.apm.api.Span;
+import co.elastic.apm.api.Transaction;
+
+public final class RemoteEJBSessionLifecycle {
+
+    private RemoteEJBSessionLifecycle() {
+    }
+
+    public static void report(String name, String action, long startNanoTime, Throwable t) {
+        report(ElasticApm.currentSpan(), ElasticApm.currentTransaction(), name, action, startNanoTime, t);
+    }
+
+    public static void report(Span parent, Transaction transaction, String name, String action, long startNanoTime, Throwable t) {
+        long endNanoTime = System.nanoTime();
+        long nanos = endNanoTime - startNanoTime;
+        if (RemoteEJBConfiguration.isLatencyHistograms()) {
+            LatencyHistograms.serverSessions().get(name).record(nanos / 1000);
+        }
+
+        if (!parent.isSampled()) {
+            return;
+        }
+
+        String label = "ejb_" + action + "_ms";
+        transaction.setLabel(label, RemoteEJBClock.toMillis(RemoteEJBTransactionTotals.add(transaction.getId(), label, nanos)));
+
+        Span span = parent.startSpan("app", "ejb", action)
+                .setName(name)
+                .setStartTimestamp(RemoteEJBClock.toEpochMicros(startNanoTime));
+        if (t != null) {
+            span.captureException(t);
+            span.setOutcome(Outcome.FAILURE);
+        } else {
+            span.setOutcome(Outcome.SUCCESS);
+        }
+        span.end(RemoteEJBClock.toEpochMicros(endNanoTime));
+    }
+}
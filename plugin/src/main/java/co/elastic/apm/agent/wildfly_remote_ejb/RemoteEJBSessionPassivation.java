@@ -0,0 +1,95 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import co.elastic.apm.api.ElasticApm;
+import co.elastic.apm.api.Span;
+import co.elastic.apm.api.Transaction;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+public final class RemoteEJBSessionPassivation implements BiConsumer<Object, Throwable> {
+
+    private static final String NAME = "Passivate stateful session";
+
+    private static final ThreadLocal<RemoteEJBSessionPassivation> CURRENT = new ThreadLocal<>();
+
+    private static final ClassValue<Method> KEY_GETTERS = new ClassValue<Method>() {
+        @Override
+        protected Method computeValue(Class<?> entryClass) {
+            try {
+                return entryClass.getMethod("getKey");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final long startNanoTime;
+    private final Span parent;
+    private final Transaction transaction;
+
+    private RemoteEJBSessionPassivation(long startNanoTime, Span parent, Transaction transaction) {
+        this.startNanoTime = startNanoTime;
+        this.parent = parent;
+        this.transaction = transaction;
+    }
+
+    public static RemoteEJBSessionPassivation enter(Object entry) {
+        if (CURRENT.get() != null || !isSessionBeanEntry(entry)) {
+            return null;
+        }
+
+        RemoteEJBSessionPassivation passivation = new RemoteEJBSessionPassivation(System.nanoTime(), ElasticApm.currentSpan(), ElasticApm.currentTransaction());
+        CURRENT.set(passivation);
+        return passivation;
+    }
+
+    public void exit(Object result, Throwable t) {
+        CURRENT.remove();
+        if (t == null && result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete(this);
+            return;
+        }
+
+        accept(null, t);
+    }
+
+    @Override
+    public void accept(Object result, Throwable t) {
+        RemoteEJBSessionLifecycle.report(parent, transaction, NAME, "passivation", startNanoTime, t);
+    }
+
+    static boolean isSessionBeanEntry(Object entry) {
+        Method keyGetter = entry != null ? KEY_GETTERS.get(entry.getClass()) : null;
+        if (keyGetter == null) {
+            return false;
+        }
+
+        try {
+            Object key = keyGetter.invoke(entry);
+            return key != null && isSessionBeanKey(key.getClass().getName());
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    static boolean isSessionBeanKey(String keyClassName) {
+        return keyClassName.startsWith("org.wildfly.clustering.ejb.");
+    }
+}
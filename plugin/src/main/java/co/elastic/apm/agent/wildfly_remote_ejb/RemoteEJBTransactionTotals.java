@@ -0,0 +1,47 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class RemoteEJBTransactionTotals {
+
+    private static final ThreadLocal<RemoteEJBTransactionTotals> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Long> totals = new HashMap<>();
+    private String transactionId;
+
+    private RemoteEJBTransactionTotals() {
+    }
+
+    public static long add(String transactionId, String name, long value) {
+        RemoteEJBTransactionTotals transactionTotals = CURRENT.get();
+        if (transactionTotals == null) {
+            transactionTotals = new RemoteEJBTransactionTotals();
+            CURRENT.set(transactionTotals);
+        }
+
+        if (!transactionId.equals(transactionTotals.transactionId)) {
+            transactionTotals.transactionId = transactionId;
+            transactionTotals.totals.clear();
+        }
+
+        long total = transactionTotals.totals.getOrDefault(name, 0L) + value;
+        transactionTotals.totals.put(name, total);
+        return total;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BinaryTraceContextHeaderExtractorTest {
+
+    public static final String TRACE_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    @Test
+    void testGetFirstHeaderWithBinaryTraceContext() {
+        BinaryTraceContextHeaderExtractor cut = new BinaryTraceContextHeaderExtractor(singletonMap(BinaryTraceContext.ATTACHMENT_NAME, BinaryTraceContext.fromTraceParent(TRACE_PARENT)));
+
+        assertEquals(TRACE_PARENT, cut.getFirstHeader("traceparent"));
+        assertNull(cut.getFirstHeader("tracestate"));
+    }
+
+    @Test
+    void testGetFirstHeaderWithTextTraceContext() {
+        Map<String, Object> carrier = new HashMap<>();
+        carrier.put("traceparent", TRACE_PARENT);
+        carrier.put("tracestate", "es=s:1");
+
+        BinaryTraceContextHeaderExtractor cut = new BinaryTraceContextHeaderExtractor(carrier);
+
+        assertEquals(TRACE_PARENT, cut.getFirstHeader("traceparent"));
+        assertEquals("es=s:1", cut.getFirstHeader("tracestate"));
+    }
+
+    @Test
+    void testGetFirstHeaderWithNonStringEntry() {
+        BinaryTraceContextHeaderExtractor cut = new BinaryTraceContextHeaderExtractor(singletonMap("traceparent", 42));
+
+        assertNull(cut.getFirstHeader("traceparent"));
+    }
+
+    @Test
+    void testBinaryTraceContextHeaderInjector() {
+        Map<String, Object> carrier = new HashMap<>();
+
+        BinaryTraceContextHeaderInjector injector = new BinaryTraceContextHeaderInjector(carrier);
+        injector.addHeader("traceparent", TRACE_PARENT);
+        injector.addHeader("tracestate", "es=s:1");
+        injector.addHeader("elastic-apm-traceparent", TRACE_PARENT);
+
+        assertEquals(1, carrier.size());
+        assertEquals(TRACE_PARENT, new BinaryTraceContextHeaderExtractor(carrier).getFirstHeader("traceparent"));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BinaryTraceContextTest {
+
+    public static final String TRACE_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    @Test
+    void testRoundTrip() {
+        byte[] binaryTraceContext = BinaryTraceContext.fromTraceParent(TRACE_PARENT);
+
+        assertEquals(25, binaryTraceContext.length);
+        assertEquals(TRACE_PARENT, BinaryTraceContext.toTraceParent(binaryTraceContext));
+    }
+
+    @Test
+    void testUnsampledRoundTrip() {
+        String traceParent = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00";
+
+        assertEquals(traceParent, BinaryTraceContext.toTraceParent(BinaryTraceContext.fromTraceParent(traceParent)));
+    }
+
+    @Test
+    void testFromMalformedTraceParent() {
+        assertNull(BinaryTraceContext.fromTraceParent(null));
+        assertNull(BinaryTraceContext.fromTraceParent("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331"));
+        assertNull(BinaryTraceContext.fromTraceParent("00-0af7651916cd43dd8448eb211c80319x-b7ad6b7169203331-01"));
+    }
+
+    @Test
+    void testToTraceParentWithInvalidValue() {
+        assertNull(BinaryTraceContext.toTraceParent(null));
+        assertNull(BinaryTraceContext.toTraceParent(TRACE_PARENT));
+        assertNull(BinaryTraceContext.toTraceParent(new byte[24]));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketBounds() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 100, 1_000, 123_456, 10_000_000}) {
+            int index = LatencyHistogram.bucketIndex(value);
+
+            assertTrue(LatencyHistogram.bucketLowerBound(index) <= value, "lower bound of " + value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "upper bound of " + value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) - LatencyHistogram.bucketLowerBound(index) <= value / 8, "precision of " + value);
+        }
+
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram cut = new LatencyHistogram();
+        for (int i = 1; i <= 1_000; i++) {
+            cut.record(i * 1_000L);
+        }
+
+        assertEquals(1_000, cut.getCount());
+        assertEquals(500_500, cut.getMeanMicros(), 0.001);
+        assertEquals(1_000_000, cut.getMaxMicros());
+        assertEquals(500_000, cut.getPercentileMicros(50), 500_000 / 8);
+        assertEquals(990_000, cut.getPercentileMicros(99), 990_000 / 8);
+        assertEquals(1_000_000, cut.getPercentileMicros(100));
+    }
+
+    @Test
+    void testReset() {
+        LatencyHistogram cut = new LatencyHistogram();
+        cut.record(42);
+        cut.reset();
+
+        assertEquals(0, cut.getCount());
+        assertEquals(0, cut.getPercentileMicros(99));
+    }
+
+    @Test
+    void testRecordDoesNotAllocate() {
+        LatencyHistogram cut = new LatencyHistogram();
+        cut.record(1);
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            cut.record(i);
+        }
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+
+        assertTrue(allocatedBytes < 10_000, "allocated " + allocatedBytes + " bytes");
+    }
+}
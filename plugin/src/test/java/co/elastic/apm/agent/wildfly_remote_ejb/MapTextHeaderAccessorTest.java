@@ -55,6 +55,13 @@ class MapTextHeaderAccessorTest {
         assertEquals(HEADER_VALUE, cut.getFirstHeader(HEADER_NAME));
     }
 
+    @Test
+    void testGetFirstHeaderWithNonStringEntry() {
+        MapTextHeaderAccessor cut = new MapTextHeaderAccessor(singletonMap(HEADER_NAME, new byte[0]));
+
+        assertEquals(null, cut.getFirstHeader(HEADER_NAME));
+    }
+
     @Test
     void testAddHeader() {
         Map<String, Object> carrier = new HashMap<>();
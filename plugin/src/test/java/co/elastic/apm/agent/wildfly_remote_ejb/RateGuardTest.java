@@ -0,0 +1,74 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateGuardTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testThrottlesAboveRateLimit() {
+        RateGuard cut = new RateGuard(0);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(cut.tryAcquire(100, 2, 1));
+        }
+        assertFalse(cut.isThrottled());
+
+        assertTrue(cut.tryAcquire(100, 2, 2));
+        assertTrue(cut.tryAcquire(100, 2, 3));
+        assertFalse(cut.tryAcquire(100, 2, 4));
+        assertTrue(cut.isThrottled());
+        assertEquals(1, cut.getSuppressedSpans());
+    }
+
+    @Test
+    void testStaysThrottledWhileRateIsHigh() {
+        RateGuard cut = new RateGuard(0);
+        for (int i = 0; i < 200; i++) {
+            cut.tryAcquire(100, 1, 1);
+        }
+
+        assertTrue(cut.tryAcquire(100, 1, SECOND));
+        assertFalse(cut.tryAcquire(100, 1, SECOND));
+        assertTrue(cut.isThrottled());
+        assertEquals(200, cut.getRate());
+    }
+
+    @Test
+    void testRecoversWhenRateDrops() {
+        RateGuard cut = new RateGuard(0);
+        for (int i = 0; i < 200; i++) {
+            cut.tryAcquire(100, 1, 1);
+        }
+        for (int i = 0; i < 10; i++) {
+            cut.tryAcquire(100, 1, SECOND + 1);
+        }
+
+        assertTrue(cut.tryAcquire(100, 1, 2 * SECOND + 1));
+        assertTrue(cut.tryAcquire(100, 1, 2 * SECOND + 2));
+        assertFalse(cut.isThrottled());
+        assertEquals(10, cut.getRate());
+    }
+}
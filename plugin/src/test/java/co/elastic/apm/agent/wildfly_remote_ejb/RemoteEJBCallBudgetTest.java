@@ -0,0 +1,120 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Array;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RemoteEJBCallBudgetTest {
+
+    @Test
+    void testRecord() {
+        RemoteEJBCallBudget cut = new RemoteEJBCallBudget(false);
+
+        cut.record(String.class, 1_000);
+        cut.record(Integer.class, 2_000);
+        cut.record(String.class, 3_000);
+
+        assertEquals(3, cut.getCallCount());
+        assertEquals(6_000, cut.getCallNanos());
+        assertEquals(2, cut.getViewCount());
+    }
+
+    @Test
+    void testViewCountIsCapped() {
+        RemoteEJBCallBudget cut = new RemoteEJBCallBudget(false);
+
+        for (int i = 0; i < RemoteEJBCallBudget.MAX_VIEWS + 10; i++) {
+            cut.record(Array.newInstance(String.class, new int[i + 1]).getClass(), 1);
+        }
+
+        assertEquals(RemoteEJBCallBudget.MAX_VIEWS + 10, cut.getCallCount());
+        assertEquals(RemoteEJBCallBudget.MAX_VIEWS, cut.getViewCount());
+    }
+
+    @Test
+    void testRecordReturnsCallCount() {
+        RemoteEJBCallBudget cut = new RemoteEJBCallBudget(false);
+
+        assertEquals(1, cut.record(String.class, 1_000));
+        assertEquals(2, cut.record(String.class, 1_000));
+    }
+
+    @Test
+    void testSharedPerTransaction() throws InterruptedException {
+        RemoteEJBCallBudget budget = RemoteEJBCallBudget.of("0123456789abcdef");
+        budget.record(String.class, 1_000);
+
+        Thread thread = new Thread(() -> RemoteEJBCallBudget.of("0123456789abcdef").record(Integer.class, 2_000));
+        thread.start();
+        thread.join();
+
+        assertSame(budget, RemoteEJBCallBudget.of("0123456789abcdef"));
+        assertEquals(2, budget.getCallCount());
+        assertEquals(3_000, budget.getCallNanos());
+        assertEquals(2, budget.getViewCount());
+
+        assertSame(budget, RemoteEJBCallBudget.remove("0123456789abcdef"));
+    }
+
+    @Test
+    void testInterleavedTransactions() {
+        RemoteEJBCallBudget.of("0123456789abcdef").record(String.class, 1_000);
+        RemoteEJBCallBudget.of("fedcba9876543210").record(String.class, 1_000);
+
+        RemoteEJBCallBudget budget = RemoteEJBCallBudget.of("0123456789abcdef");
+        budget.record(String.class, 1_000);
+
+        assertEquals(2, budget.getCallCount());
+        assertNotSame(budget, RemoteEJBCallBudget.of("fedcba9876543210"));
+
+        RemoteEJBCallBudget.remove("0123456789abcdef");
+        RemoteEJBCallBudget.remove("fedcba9876543210");
+    }
+
+    @Test
+    void testRemove() {
+        RemoteEJBCallBudget budget = RemoteEJBCallBudget.of("0123456789abcdef");
+        budget.record(String.class, 1_000);
+
+        assertSame(budget, RemoteEJBCallBudget.remove("0123456789abcdef"));
+        assertNull(RemoteEJBCallBudget.remove("0123456789abcdef"));
+        assertEquals(0, RemoteEJBCallBudget.of("0123456789abcdef").getCallCount());
+
+        RemoteEJBCallBudget.remove("0123456789abcdef");
+    }
+
+    @Test
+    void testNumberOfTransactionsIsCapped() {
+        RemoteEJBCallBudget budget = RemoteEJBCallBudget.of("transaction-0");
+        budget.record(String.class, 1_000);
+
+        for (int i = 1; i <= RemoteEJBCallBudget.MAX_TRANSACTIONS; i++) {
+            RemoteEJBCallBudget.of("transaction-" + i);
+        }
+
+        assertNull(RemoteEJBCallBudget.remove("transaction-0"));
+        for (int i = 1; i <= RemoteEJBCallBudget.MAX_TRANSACTIONS; i++) {
+            RemoteEJBCallBudget.remove("transaction-" + i);
+        }
+    }
+}
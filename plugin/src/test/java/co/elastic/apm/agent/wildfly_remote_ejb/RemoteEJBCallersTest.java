@@ -0,0 +1,53 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RemoteEJBCallersTest {
+
+    @Test
+    void testTopCallers() {
+        RemoteEJBCallers cut = new RemoteEJBCallers();
+        cut.record("frontend", "GreetingView#greet", 2_000_000, 10);
+        cut.record("frontend", "GreetingView#greet", 2_000_000, 10);
+        cut.record("backend", "GreetingView#greet", 1_000_000, 10);
+        cut.record("frontend", "GreetingView#ping", 500_000, 10);
+
+        assertArrayEquals(new String[]{
+                "frontend GreetingView#greet calls=2 server_ms=4.000",
+                "backend GreetingView#greet calls=1 server_ms=1.000"
+        }, cut.getTopCallers(2));
+        assertEquals(3, cut.getTopCallers(5).length);
+    }
+
+    @Test
+    void testEvictsCallerWithLeastServerTime() {
+        RemoteEJBCallers cut = new RemoteEJBCallers();
+        cut.record("a", "View#m", 3_000_000, 2);
+        cut.record("b", "View#m", 1_000_000, 2);
+        cut.record("c", "View#m", 2_500_000, 2);
+
+        assertEquals(2, cut.getSize());
+        assertArrayEquals(new String[]{
+                "c View#m calls=2 server_ms=3.500",
+                "a View#m calls=1 server_ms=3.000"
+        }, cut.getTopCallers(2));
+    }
+}
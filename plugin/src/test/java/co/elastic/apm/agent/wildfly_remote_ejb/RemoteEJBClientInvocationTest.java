@@ -0,0 +1,215 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBClientInvocationTest {
+
+    private static final URI NODE_1 = URI.create("remote+http://node1:8080");
+    private static final URI NODE_2 = URI.create("remote+http://node2:8080");
+
+    @Test
+    void testAttempts() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        IOException failure = new IOException();
+
+        cut.onAttemptStart();
+        cut.onAttemptSent(NODE_1, failure);
+
+        assertEquals(1, cut.getAttempts());
+        assertSame(NODE_1, cut.getAttemptDestination());
+        assertSame(failure, cut.getAttemptFailure());
+
+        cut.onAttemptStart();
+        cut.onAttemptSent(NODE_2, null);
+
+        assertEquals(2, cut.getAttempts());
+        assertSame(NODE_2, cut.getAttemptDestination());
+        assertNull(cut.getAttemptFailure());
+    }
+
+    @Test
+    void testFailureBelongsToCurrentAttempt() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        IOException failure = new IOException();
+
+        cut.onAttemptStart();
+        cut.onAttemptSent(NODE_1, null);
+        cut.onAttemptStart();
+        cut.onAttemptSent(NODE_2, null);
+        cut.onFailed(failure);
+
+        assertEquals(2, cut.getAttempts());
+        assertSame(NODE_2, cut.getAttemptDestination());
+        assertSame(failure, cut.getAttemptFailure());
+    }
+
+    @Test
+    void testResultFailureBelongsToCurrentAttempt() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        IOException failure = new IOException();
+
+        cut.onAttemptStart();
+        cut.onAttemptSent(NODE_1, null);
+        cut.onAttemptFailed(failure);
+        cut.onAttemptFailed(new RuntimeException(failure));
+
+        assertSame(failure, cut.getAttemptFailure());
+
+        cut.onAttemptStart();
+        cut.onAttemptSent(NODE_2, null);
+
+        assertNull(cut.getAttemptFailure());
+    }
+
+    @Test
+    void testResultReadyBeforeReturn() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        long count = getEndCount();
+
+        cut.onResultReady();
+
+        assertFalse(cut.onAsync());
+        assertEquals(count, getEndCount());
+        assertTrue(cut.tryEndSync());
+        assertFalse(cut.tryEndSync());
+    }
+
+    @Test
+    void testAsyncEndedByRetrievedResult() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        long count = getEndCount();
+
+        assertTrue(cut.onAsync());
+        cut.onResultReady();
+
+        assertEquals(count, getEndCount());
+
+        cut.onRetrievalStart();
+        cut.onRetrievalStart();
+        cut.onRetrievalEnd(null);
+
+        assertEquals(count, getEndCount());
+
+        cut.onRetrievalEnd(null);
+        cut.onResultReady();
+        cut.onFailed(new IOException());
+
+        assertEquals(count + 1, getEndCount());
+        assertFalse(cut.tryEndSync());
+    }
+
+    @Test
+    void testAsyncEndedByRetrievedException() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        IOException failure = new IOException();
+        long count = getEndCount();
+
+        cut.onAsync();
+        cut.onAttemptStart();
+        cut.onResultReady();
+        cut.onRetrievalStart();
+        cut.onRetrievalEnd(failure);
+
+        assertEquals(count + 1, getEndCount());
+        assertSame(failure, cut.getAttemptFailure());
+        assertFalse(cut.tryEndSync());
+    }
+
+    @Test
+    void testAsyncRetriedAfterResult() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        long count = getEndCount();
+
+        cut.onAsync();
+        cut.onAttemptStart();
+        cut.onResultReady();
+        cut.onRetrievalStart();
+        cut.onAttemptStart();
+        cut.onRetrievalEnd(new IOException());
+
+        assertEquals(count, getEndCount());
+
+        cut.onResultReady();
+        cut.onRetrievalStart();
+        cut.onRetrievalEnd(null);
+
+        assertEquals(count + 1, getEndCount());
+        assertEquals(2, cut.getAttempts());
+    }
+
+    @Test
+    void testAsyncCancelled() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        long count = getEndCount();
+
+        cut.onAsync();
+        cut.onCancelled();
+
+        assertEquals(count + 1, getEndCount());
+        assertFalse(cut.tryEndSync());
+    }
+
+    @Test
+    void testAsyncFailedBeforeReturn() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        long count = getEndCount();
+
+        cut.onAsync();
+        cut.onFailed(new IOException());
+
+        assertEquals(count + 1, getEndCount());
+        assertFalse(cut.tryEndSync());
+    }
+
+    @Test
+    void testAsyncFailedAfterSyncEnd() throws Exception {
+        RemoteEJBClientInvocation cut = newInvocation();
+        long count = getEndCount();
+
+        cut.onAsync();
+        assertTrue(cut.tryEndSync());
+
+        cut.onFailed(new IOException());
+        cut.onResultReady();
+        cut.onRetrievalStart();
+        cut.onRetrievalEnd(null);
+
+        assertEquals(count, getEndCount());
+    }
+
+    private static long getEndCount() throws NoSuchMethodException {
+        return RemoteEJBMethod.of(GreetingView.class, GreetingView.class.getMethod("greet")).getClientLatencyHistogram().getCount();
+    }
+
+    private static RemoteEJBClientInvocation newInvocation() throws NoSuchMethodException {
+        return new RemoteEJBClientInvocation(RemoteEJBMethod.of(GreetingView.class, GreetingView.class.getMethod("greet")), System.nanoTime(), null, null);
+    }
+
+    interface GreetingView {
+        String greet();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBConfigurationTest {
+
+    public static final String KEY = "ejb_configuration_test";
+
+    @AfterEach
+    void clearProperty() {
+        System.clearProperty("elastic.apm." + KEY);
+    }
+
+    @Test
+    void testGetBoolean() {
+        assertFalse(RemoteEJBConfiguration.getBoolean(KEY, false));
+
+        System.setProperty("elastic.apm." + KEY, " true ");
+
+        assertTrue(RemoteEJBConfiguration.getBoolean(KEY, false));
+    }
+
+    @Test
+    void testGetInt() {
+        assertEquals(42, RemoteEJBConfiguration.getInt(KEY, 42));
+
+        System.setProperty("elastic.apm." + KEY, " 100 ");
+        assertEquals(100, RemoteEJBConfiguration.getInt(KEY, 42));
+
+        System.setProperty("elastic.apm." + KEY, "foo");
+        assertEquals(42, RemoteEJBConfiguration.getInt(KEY, 42));
+    }
+
+    @Test
+    void testGetSet() {
+        assertTrue(RemoteEJBConfiguration.getSet(KEY).isEmpty());
+
+        System.setProperty("elastic.apm." + KEY, " com.example.A , ,com.example.B");
+        assertEquals(new HashSet<>(Arrays.asList("com.example.A", "com.example.B")), RemoteEJBConfiguration.getSet(KEY));
+    }
+
+    @Test
+    void testGetDurationNanos() {
+        assertEquals(42, RemoteEJBConfiguration.getDurationNanos(KEY, 42));
+
+        assertDurationNanos("5", TimeUnit.MILLISECONDS.toNanos(5));
+        assertDurationNanos("5ms", TimeUnit.MILLISECONDS.toNanos(5));
+        assertDurationNanos("250us", TimeUnit.MICROSECONDS.toNanos(250));
+        assertDurationNanos("2s", TimeUnit.SECONDS.toNanos(2));
+        assertDurationNanos("1m", TimeUnit.MINUTES.toNanos(1));
+        assertDurationNanos("foo", 42);
+    }
+
+    private static void assertDurationNanos(String value, long expectedNanos) {
+        System.setProperty("elastic.apm." + KEY, value);
+
+        assertEquals(expectedNanos, RemoteEJBConfiguration.getDurationNanos(KEY, 42));
+    }
+}
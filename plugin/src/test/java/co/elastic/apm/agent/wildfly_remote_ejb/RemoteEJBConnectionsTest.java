@@ -0,0 +1,50 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RemoteEJBConnectionsTest {
+
+    @Test
+    void testCountsReconnects() {
+        RemoteEJBConnections cut = new RemoteEJBConnections();
+        cut.onConnection(false);
+        cut.onConnection(true);
+        cut.onConnection(true);
+        cut.onConnection(false);
+        cut.onConnectionFailed();
+
+        assertEquals(2, cut.getReusedCount());
+        assertEquals(2, cut.getOpenedCount());
+        assertEquals(1, cut.getFailedCount());
+    }
+
+    @Test
+    void testReset() {
+        RemoteEJBConnections cut = new RemoteEJBConnections();
+        cut.onConnection(false);
+        cut.onConnectionFailed();
+
+        cut.reset();
+
+        assertEquals(0, cut.getReusedCount());
+        assertEquals(0, cut.getOpenedCount());
+        assertEquals(0, cut.getFailedCount());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import jakarta.ejb.ApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBExceptionTypeTest {
+
+    @Test
+    void testSystemExceptions() {
+        assertFalse(RemoteEJBExceptionType.isApplicationException(RuntimeException.class, Collections.emptySet()));
+        assertFalse(RemoteEJBExceptionType.isApplicationException(IllegalStateException.class, Collections.emptySet()));
+        assertFalse(RemoteEJBExceptionType.isApplicationException(OutOfMemoryError.class, Collections.emptySet()));
+        assertFalse(RemoteEJBExceptionType.isApplicationException(RemoteException.class, Collections.emptySet()));
+        assertFalse(RemoteEJBExceptionType.isApplicationException(NotInheritedSubclassException.class, Collections.emptySet()));
+    }
+
+    @Test
+    void testApplicationExceptions() {
+        assertTrue(RemoteEJBExceptionType.isApplicationException(IOException.class, Collections.emptySet()));
+        assertTrue(RemoteEJBExceptionType.isApplicationException(AnnotatedException.class, Collections.emptySet()));
+        assertTrue(RemoteEJBExceptionType.isApplicationException(AnnotatedSubclassException.class, Collections.emptySet()));
+        assertTrue(RemoteEJBExceptionType.isApplicationException(NotInheritedException.class, Collections.emptySet()));
+    }
+
+    @Test
+    void testExpectedExceptions() {
+        assertTrue(RemoteEJBExceptionType.isApplicationException(IllegalStateException.class, Collections.singleton("java.lang.IllegalStateException")));
+        assertTrue(RemoteEJBExceptionType.isApplicationException(IllegalArgumentException.class, Collections.singleton("java.lang.RuntimeException")));
+        assertFalse(RemoteEJBExceptionType.isApplicationException(RuntimeException.class, Collections.singleton("java.lang.IllegalStateException")));
+    }
+
+    @Test
+    void testTryCapture() {
+        RemoteEJBExceptionType cut = RemoteEJBExceptionType.of(new IllegalStateException());
+        long nanoTime = System.nanoTime();
+
+        assertTrue(cut.tryCapture(0, nanoTime));
+        assertTrue(cut.tryCapture(2, nanoTime));
+        assertTrue(cut.tryCapture(2, nanoTime));
+        assertFalse(cut.tryCapture(2, nanoTime));
+        assertTrue(cut.tryCapture(2, nanoTime + TimeUnit.MINUTES.toNanos(1)));
+    }
+
+    @ApplicationException
+    static class AnnotatedException extends RuntimeException {
+    }
+
+    static class AnnotatedSubclassException extends AnnotatedException {
+    }
+
+    @ApplicationException(inherited = false)
+    static class NotInheritedException extends RuntimeException {
+    }
+
+    static class NotInheritedSubclassException extends NotInheritedException {
+    }
+}
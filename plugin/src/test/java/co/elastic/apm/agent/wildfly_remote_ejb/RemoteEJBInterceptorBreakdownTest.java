@@ -0,0 +1,89 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBInterceptorBreakdownTest {
+
+    @Test
+    void testInactive() {
+        assertEquals(-1, RemoteEJBInterceptorBreakdown.enter(OuterInterceptor.class));
+        assertNull(RemoteEJBInterceptorBreakdown.stop());
+    }
+
+    @Test
+    void testNestedInterceptors() throws InterruptedException {
+        RemoteEJBInterceptorBreakdown.start();
+
+        int outer = RemoteEJBInterceptorBreakdown.enter(OuterInterceptor.class);
+        Thread.sleep(5);
+        int inner = RemoteEJBInterceptorBreakdown.enter(InnerInterceptor.class);
+        Thread.sleep(5);
+        RemoteEJBInterceptorBreakdown.exit(inner);
+        int sibling = RemoteEJBInterceptorBreakdown.enter(InnerInterceptor.class);
+        RemoteEJBInterceptorBreakdown.exit(sibling);
+        RemoteEJBInterceptorBreakdown.exit(outer);
+
+        RemoteEJBInterceptorBreakdown cut = RemoteEJBInterceptorBreakdown.stop();
+
+        assertEquals(3, cut.size());
+        assertEquals("RemoteEJBInterceptorBreakdownTest$OuterInterceptor", cut.getName(0));
+        assertEquals("RemoteEJBInterceptorBreakdownTest$InnerInterceptor", cut.getName(1));
+        assertEquals(0, cut.getDepth(0));
+        assertEquals(1, cut.getDepth(1));
+        assertEquals(1, cut.getDepth(2));
+        assertEquals(cut.getDurationNanos(0) - cut.getDurationNanos(1) - cut.getDurationNanos(2), cut.getSelfNanos(0));
+        assertEquals(cut.getDurationNanos(1), cut.getSelfNanos(1));
+        assertTrue(cut.getSelfNanos(0) >= 5_000_000);
+
+        assertEquals(-1, RemoteEJBInterceptorBreakdown.enter(OuterInterceptor.class));
+    }
+
+    @Test
+    void testMethodNames() throws NoSuchMethodException {
+        RemoteEJBInterceptorBreakdown.start();
+
+        int interceptor = RemoteEJBInterceptorBreakdown.enter(OuterInterceptor.class.getDeclaredMethod("aroundInvoke"));
+        int bean = RemoteEJBInterceptorBreakdown.enter(InnerInterceptor.class.getDeclaredMethod("greet"));
+        RemoteEJBInterceptorBreakdown.exit(bean);
+        RemoteEJBInterceptorBreakdown.exit(interceptor);
+
+        RemoteEJBInterceptorBreakdown cut = RemoteEJBInterceptorBreakdown.stop();
+
+        assertEquals(2, cut.size());
+        assertEquals("RemoteEJBInterceptorBreakdownTest$OuterInterceptor#aroundInvoke", cut.getName(0));
+        assertEquals("RemoteEJBInterceptorBreakdownTest$InnerInterceptor#greet", cut.getName(1));
+        assertSame(cut.getName(1), RemoteEJBInterceptorBreakdown.getName(InnerInterceptor.class.getDeclaredMethod("greet")));
+    }
+
+    static class OuterInterceptor {
+        Object aroundInvoke() {
+            return null;
+        }
+    }
+
+    static class InnerInterceptor {
+        String greet() {
+            return null;
+        }
+    }
+}
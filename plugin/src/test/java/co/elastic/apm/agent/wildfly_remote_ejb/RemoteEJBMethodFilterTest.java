@@ -0,0 +1,62 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBMethodFilterTest {
+
+    @Test
+    void testCompile() {
+        assertNull(RemoteEJBMethodFilter.compile(Collections.emptySet()));
+
+        Pattern pattern = RemoteEJBMethodFilter.compile(Arrays.asList("*#ping", "Health*#get*", "a.b$C#d"));
+
+        assertTrue(pattern.matcher("GreetingView#ping").matches());
+        assertTrue(pattern.matcher("HealthView#getStatus").matches());
+        assertTrue(pattern.matcher("a.b$C#d").matches());
+        assertFalse(pattern.matcher("GreetingView#pingAll").matches());
+        assertFalse(pattern.matcher("aXb$C#d").matches());
+    }
+
+    @Test
+    void testIgnore() {
+        RemoteEJBMethodFilter cut = new RemoteEJBMethodFilter(RemoteEJBMethodFilter.compile(Arrays.asList("*#ping", "*.internal.*")), null);
+
+        assertTrue(cut.isIgnored(GreetingView.class, "ping"));
+        assertFalse(cut.isIgnored(GreetingView.class, "greet"));
+    }
+
+    @Test
+    void testInclude() {
+        RemoteEJBMethodFilter cut = new RemoteEJBMethodFilter(RemoteEJBMethodFilter.compile(Collections.singleton("*#ping")), RemoteEJBMethodFilter.compile(Collections.singleton("co.elastic.*")));
+
+        assertFalse(cut.isIgnored(GreetingView.class, "greet"));
+        assertTrue(cut.isIgnored(GreetingView.class, "ping"));
+        assertTrue(cut.isIgnored(String.class, "greet"));
+    }
+
+    interface GreetingView {
+    }
+}
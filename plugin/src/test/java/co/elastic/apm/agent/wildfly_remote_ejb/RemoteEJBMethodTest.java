@@ -0,0 +1,79 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBMethodTest {
+
+    @Test
+    void testNames() throws NoSuchMethodException {
+        RemoteEJBMethod cut = RemoteEJBMethod.of(GreetingView.class, GreetingView.class.getMethod("greet"));
+
+        assertEquals("GreetingView#greet", cut.getName());
+        assertEquals("Call GreetingView#greet", cut.getSpanName());
+    }
+
+    @Test
+    void testSameInstanceForSameViewAndMethod() throws NoSuchMethodException {
+        Method method = GreetingView.class.getMethod("greet");
+
+        assertSame(RemoteEJBMethod.of(GreetingView.class, method), RemoteEJBMethod.of(GreetingView.class, method));
+    }
+
+    @Test
+    void testDifferentInstanceForDifferentView() throws NoSuchMethodException {
+        Method method = GreetingView.class.getMethod("greet");
+
+        RemoteEJBMethod greetingView = RemoteEJBMethod.of(GreetingView.class, method);
+        RemoteEJBMethod extendedGreetingView = RemoteEJBMethod.of(ExtendedGreetingView.class, method);
+
+        assertNotSame(greetingView, extendedGreetingView);
+        assertEquals("ExtendedGreetingView#greet", extendedGreetingView.getName());
+    }
+
+    @Test
+    void testSteadyStateDoesNotAllocate() throws NoSuchMethodException {
+        Method method = GreetingView.class.getMethod("greet");
+        RemoteEJBMethod.of(GreetingView.class, method);
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            RemoteEJBMethod.of(GreetingView.class, method).getSpanName();
+        }
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+
+        assertTrue(allocatedBytes < 10_000, "allocated " + allocatedBytes + " bytes");
+    }
+
+    interface GreetingView {
+        String greet();
+    }
+
+    interface ExtendedGreetingView extends GreetingView {
+    }
+}
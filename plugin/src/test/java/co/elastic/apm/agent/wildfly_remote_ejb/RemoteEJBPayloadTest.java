@@ -0,0 +1,75 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RemoteEJBPayloadTest {
+
+    @Test
+    void testCountsOnlyWhileStarted() {
+        RemoteEJBPayload.count(10);
+
+        RemoteEJBPayload.start();
+        RemoteEJBPayload.count(100);
+        RemoteEJBPayload.count(-1);
+        RemoteEJBPayload.count(23);
+
+        assertEquals(123, RemoteEJBPayload.stop());
+        assertEquals(-1, RemoteEJBPayload.stop());
+    }
+
+    @Test
+    void testNothingCounted() {
+        RemoteEJBPayload.start();
+
+        assertEquals(-1, RemoteEJBPayload.stop());
+    }
+
+    @Test
+    void testNested() {
+        RemoteEJBPayload.start();
+        RemoteEJBPayload.count(1);
+        RemoteEJBPayload.start();
+        RemoteEJBPayload.count(2);
+
+        assertEquals(-1, RemoteEJBPayload.stop());
+        assertEquals(3, RemoteEJBPayload.stop());
+    }
+
+    @Test
+    void testPayloadSize() {
+        PayloadSize cut = new PayloadSize();
+        cut.recordRequest(100);
+        cut.recordRequest(300);
+        cut.recordRequest(-1);
+        cut.recordResponse(42);
+
+        assertEquals(2, cut.getRequestCount());
+        assertEquals(200, cut.getMeanRequestBytes(), 0.001);
+        assertEquals(300, cut.getMaxRequestBytes());
+        assertEquals(1, cut.getResponseCount());
+        assertEquals(42, cut.getMaxResponseBytes());
+
+        cut.reset();
+
+        assertEquals(0, cut.getRequestCount());
+        assertEquals(0, cut.getMeanRequestBytes(), 0.001);
+        assertEquals(0, cut.getMaxRequestBytes());
+    }
+}
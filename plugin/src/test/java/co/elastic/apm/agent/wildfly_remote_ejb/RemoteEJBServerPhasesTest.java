@@ -0,0 +1,71 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBServerPhasesTest {
+
+    @Test
+    void testEndedAfterMarshalling() {
+        List<Long> marshalNanos = new ArrayList<>();
+        List<Long> responseBytes = new ArrayList<>();
+
+        RemoteEJBServerPhases.deferEnd(nanos -> {
+            marshalNanos.add(nanos);
+            responseBytes.add(RemoteEJBServerPhases.getResponseBytes());
+        });
+        RemoteEJBServerPhases.onMarshalStart();
+        RemoteEJBServerPhases.onMarshalEnd(42);
+        RemoteEJBServerPhases.flush();
+
+        assertEquals(1, marshalNanos.size());
+        assertTrue(marshalNanos.get(0) >= 0);
+        assertEquals(42, responseBytes.get(0));
+        assertEquals(-1, RemoteEJBServerPhases.getResponseBytes());
+    }
+
+    @Test
+    void testEndedWhenTaskCompletesWithoutResult() {
+        List<Long> marshalNanos = new ArrayList<>();
+
+        new RemoteEJBServerTask(() -> RemoteEJBServerPhases.deferEnd(marshalNanos::add)).run();
+
+        assertEquals(1, marshalNanos.size());
+        assertEquals(-1, marshalNanos.get(0));
+    }
+
+    @Test
+    void testEndedWhenTaskFails() {
+        List<Long> marshalNanos = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> new RemoteEJBServerTask(() -> {
+            RemoteEJBServerPhases.deferEnd(marshalNanos::add);
+            throw new IllegalStateException();
+        }).run());
+
+        assertEquals(1, marshalNanos.size());
+        RemoteEJBServerPhases.flush();
+        assertEquals(1, marshalNanos.size());
+    }
+}
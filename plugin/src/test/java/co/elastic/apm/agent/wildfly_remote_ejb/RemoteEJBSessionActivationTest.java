@@ -0,0 +1,55 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBSessionActivationTest {
+
+    @Test
+    void testActivatedOnlyWithinLookup() {
+        assertFalse(RemoteEJBSessionActivation.onActivated("CartBean"));
+
+        RemoteEJBSessionActivation.enter();
+        assertTrue(RemoteEJBSessionActivation.onActivated("CartBean"));
+
+        RemoteEJBSessionActivation activation = RemoteEJBSessionActivation.exit();
+        assertEquals("CartBean", activation.getBeanName());
+        assertNull(RemoteEJBSessionActivation.exit());
+    }
+
+    @Test
+    void testNotActivated() {
+        RemoteEJBSessionActivation.enter();
+
+        assertNull(RemoteEJBSessionActivation.exit());
+    }
+
+    @Test
+    void testNested() {
+        RemoteEJBSessionActivation.enter();
+        RemoteEJBSessionActivation.enter();
+        RemoteEJBSessionActivation.onActivated("CartBean");
+
+        assertNull(RemoteEJBSessionActivation.exit());
+        assertEquals("CartBean", RemoteEJBSessionActivation.exit().getBeanName());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteEJBSessionPassivationTest {
+
+    @Test
+    void testIsSessionBeanKey() {
+        assertTrue(RemoteEJBSessionPassivation.isSessionBeanKey("org.wildfly.clustering.ejb.infinispan.BeanGroupKey"));
+        assertTrue(RemoteEJBSessionPassivation.isSessionBeanKey("org.wildfly.clustering.ejb.infinispan.bean.InfinispanBeanGroupKey"));
+        assertFalse(RemoteEJBSessionPassivation.isSessionBeanKey("org.wildfly.clustering.web.infinispan.session.SessionCreationMetaDataKey"));
+    }
+
+    @Test
+    void testIsSessionBeanEntry() {
+        assertFalse(RemoteEJBSessionPassivation.isSessionBeanEntry(null));
+        assertFalse(RemoteEJBSessionPassivation.isSessionBeanEntry(new Object()));
+        assertFalse(RemoteEJBSessionPassivation.isSessionBeanEntry(new Entry(null)));
+        assertFalse(RemoteEJBSessionPassivation.isSessionBeanEntry(new Entry("key")));
+    }
+
+    public static class Entry {
+        private final Object key;
+
+        Entry(Object key) {
+            this.key = key;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+   Copyright 2021 Tobias Stadler
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package co.elastic.apm.agent.wildfly_remote_ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RemoteEJBTransactionTotalsTest {
+
+    @Test
+    void testSumsPerTransactionAndName() {
+        assertEquals(1_000, RemoteEJBTransactionTotals.add("0123456789abcdef", "ejb_activation_ms", 1_000));
+        assertEquals(3_000, RemoteEJBTransactionTotals.add("0123456789abcdef", "ejb_activation_ms", 2_000));
+        assertEquals(500, RemoteEJBTransactionTotals.add("0123456789abcdef", "ejb_pre_passivate_ms", 500));
+        assertEquals(3_500, RemoteEJBTransactionTotals.add("0123456789abcdef", "ejb_activation_ms", 500));
+    }
+
+    @Test
+    void testResetOnNewTransaction() {
+        RemoteEJBTransactionTotals.add("0123456789abcdef", "ejb_activation_ms", 1_000);
+
+        assertEquals(2_000, RemoteEJBTransactionTotals.add("fedcba9876543210", "ejb_activation_ms", 2_000));
+    }
+}